@@ -0,0 +1,109 @@
+package com.example.walletmicroservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Circuit breaker around the external auth server.
+ * CLOSED: calls flow; after N consecutive failures the circuit OPENs.
+ * OPEN: calls fail fast until the open duration elapses.
+ * HALF_OPEN: a single probe call is let through; success closes the circuit, failure re-opens it.
+ */
+@Component
+@Slf4j
+public class AuthCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final boolean enabled;
+    private final int failureThreshold;
+    private final long openDurationMs;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    private final Map<State, Counter> transitions = new EnumMap<>(State.class);
+    private final Counter rejected;
+
+    public AuthCircuitBreaker(@Value("${app.auth.circuit-breaker.enabled:true}") boolean enabled,
+                              @Value("${app.auth.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                              @Value("${app.auth.circuit-breaker.open-duration-ms:30000}") long openDurationMs,
+                              MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = openDurationMs;
+
+        for (State target : State.values()) {
+            transitions.put(target, Counter.builder("auth.circuit.transitions")
+                    .tag("to", target.name())
+                    .description("Auth server circuit breaker state transitions")
+                    .register(meterRegistry));
+        }
+        this.rejected = Counter.builder("auth.circuit.rejected")
+                .description("Auth server calls short-circuited while the breaker was open")
+                .register(meterRegistry);
+        Gauge.builder("auth.circuit.state", this, breaker -> breaker.getState().ordinal())
+                .description("Auth server circuit breaker state (0=closed, 1=open, 2=half-open)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return true if a call to the auth server may be attempted now
+     */
+    public synchronized boolean allowRequest() {
+        if (!enabled || state == State.CLOSED) {
+            return true;
+        }
+
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openDurationMs) {
+            transitionTo(State.HALF_OPEN);
+        }
+
+        if (state == State.HALF_OPEN && !probeInFlight) {
+            probeInFlight = true;
+            return true;
+        }
+
+        rejected.increment();
+        return false;
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        if (state != State.CLOSED) {
+            transitionTo(State.CLOSED);
+        }
+    }
+
+    public synchronized void recordFailure() {
+        probeInFlight = false;
+        consecutiveFailures++;
+
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            openedAt = System.currentTimeMillis();
+            transitionTo(State.OPEN);
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void transitionTo(State target) {
+        log.warn("Auth server circuit breaker {} -> {}", state, target);
+        state = target;
+        transitions.get(target).increment();
+    }
+}
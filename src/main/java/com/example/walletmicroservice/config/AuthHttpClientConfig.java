@@ -0,0 +1,21 @@
+package com.example.walletmicroservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+
+@Configuration
+public class AuthHttpClientConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "app.auth.http")
+    public HttpClientPoolSettings authHttpClientSettings() {
+        return new HttpClientPoolSettings();
+    }
+
+    @Bean
+    public RestTemplate authRestTemplate(PooledHttpClientFactory pooledHttpClientFactory) {
+        return new RestTemplate(pooledHttpClientFactory.create("auth", authHttpClientSettings()));
+    }
+}
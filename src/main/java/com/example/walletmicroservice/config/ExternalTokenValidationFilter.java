@@ -4,6 +4,7 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -11,11 +12,14 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.http.*;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.ResourceAccessException;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import com.example.walletmicroservice.util.SingleFlight;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 
 import java.io.IOException;
 import java.util.*;
@@ -27,9 +31,6 @@ public class ExternalTokenValidationFilter extends OncePerRequestFilter {
     @Value("${app.auth.validation-url}")
     private String validationUrl;
 
-    @Value("${app.auth.timeout-ms}")
-    private int timeoutMs;
-
     @Value("${app.auth.header-name}")
     private String authHeaderName;
 
@@ -41,18 +42,31 @@ public class ExternalTokenValidationFilter extends OncePerRequestFilter {
 
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final TokenValidationCache tokenValidationCache;
+    private final LocalJwtVerifier localJwtVerifier;
+    private final AuthCircuitBreaker authCircuitBreaker;
+
+    // Concurrent validations of the same token share one auth server call
+    private final SingleFlight<String, UserInfo> inFlightValidations = new SingleFlight<>();
 
     // Constructor injection
-    public ExternalTokenValidationFilter() {
-        this.restTemplate = createRestTemplate();
+    public ExternalTokenValidationFilter(@Qualifier("authRestTemplate") RestTemplate restTemplate,
+                                         TokenValidationCache tokenValidationCache,
+                                         LocalJwtVerifier localJwtVerifier,
+                                         AuthCircuitBreaker authCircuitBreaker,
+                                         MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
         this.objectMapper = new ObjectMapper();
-    }
-
-    private RestTemplate createRestTemplate() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(timeoutMs);
-        factory.setReadTimeout(timeoutMs);
-        return new RestTemplate(factory);
+        this.tokenValidationCache = tokenValidationCache;
+        this.localJwtVerifier = localJwtVerifier;
+        this.authCircuitBreaker = authCircuitBreaker;
+
+        FunctionCounter.builder("auth.token.validation.calls", inFlightValidations, SingleFlight::getExecutions)
+                .description("Validation calls sent to the auth server")
+                .register(meterRegistry);
+        FunctionCounter.builder("auth.token.validation.coalesced", inFlightValidations, SingleFlight::getShared)
+                .description("Validations that reused another thread's in-flight auth server call")
+                .register(meterRegistry);
     }
 
     @Override
@@ -98,7 +112,7 @@ public class ExternalTokenValidationFilter extends OncePerRequestFilter {
         }
 
         try {
-            UserInfo userInfo = validateTokenWithExternalServer(token);
+            UserInfo userInfo = resolveUserInfo(token);
 
             if (userInfo != null && userInfo.isValid()) {
                 logger.info("Token validated successfully for user: " + userInfo.getEmail());
@@ -195,6 +209,63 @@ public class ExternalTokenValidationFilter extends OncePerRequestFilter {
         return false;
     }
 
+    /**
+     * JWTs are verified locally when app.auth.mode=local. Otherwise serve repeat tokens
+     * from the cache; only cache misses go to the auth server, and concurrent misses
+     * for the same token wait on a single shared call. While the auth server is failing
+     * (circuit open or call failed) recently validated tokens are served stale.
+     */
+    private UserInfo resolveUserInfo(String token) throws Exception {
+        UserInfo locallyVerified = localJwtVerifier.verify(token);
+        if (locallyVerified != null) {
+            return locallyVerified;
+        }
+
+        String cacheKey = tokenValidationCache.keyFor(token);
+
+        UserInfo cached = tokenValidationCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (!authCircuitBreaker.allowRequest()) {
+            UserInfo stale = tokenValidationCache.getStale(cacheKey);
+            if (stale != null) {
+                return stale;
+            }
+            throw new ResourceAccessException("Auth server circuit breaker is open");
+        }
+
+        return inFlightValidations.execute(cacheKey, () -> {
+            UserInfo userInfo;
+            try {
+                userInfo = validateTokenWithExternalServer(token);
+            } catch (ResourceAccessException | HttpServerErrorException e) {
+                authCircuitBreaker.recordFailure();
+
+                UserInfo stale = tokenValidationCache.getStale(cacheKey);
+                if (stale != null) {
+                    logger.warn("Auth server call failed, serving stale validation: " + e.getMessage());
+                    return stale;
+                }
+                throw e;
+            } catch (Exception e) {
+                // The auth server answered; only transport/5xx failures trip the breaker
+                authCircuitBreaker.recordSuccess();
+                throw e;
+            }
+
+            authCircuitBreaker.recordSuccess();
+            if (userInfo != null && userInfo.isValid()) {
+                tokenValidationCache.put(cacheKey, userInfo);
+            } else {
+                // Rejected by the auth server - never serve it stale later
+                tokenValidationCache.invalidate(cacheKey);
+            }
+            return userInfo;
+        });
+    }
+
     private UserInfo validateTokenWithExternalServer(String token) throws IOException {
         HttpHeaders headers = new HttpHeaders();
         headers.set(authHeaderName, bearerPrefix + " " + token);
@@ -237,7 +308,8 @@ public class ExternalTokenValidationFilter extends OncePerRequestFilter {
             }
 
         } catch (Exception e) {
-            if (e.getMessage().contains("401") || e.getMessage().contains("Unauthorized")) {
+            String error = String.valueOf(e.getMessage());
+            if (error.contains("401") || error.contains("Unauthorized")) {
                 logger.warn("Token rejected by auth server");
             } else {
                 throw e;
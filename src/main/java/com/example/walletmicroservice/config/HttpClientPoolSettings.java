@@ -0,0 +1,20 @@
+package com.example.walletmicroservice.config;
+
+import lombok.Data;
+
+/**
+ * Tuning for one outbound HTTP connection pool, bound from properties
+ * (e.g. app.auth.http.*).
+ */
+@Data
+public class HttpClientPoolSettings {
+    private int maxTotal = 50;
+    private int maxPerRoute = 20;
+    private int connectTimeoutMs = 2000;
+    private int responseTimeoutMs = 5000;
+    private int connectionRequestTimeoutMs = 1000; // wait for a free pooled connection
+    private long keepAliveMs = 30000;               // upper bound when the server sends no Keep-Alive header
+    private long idleEvictionMs = 60000;
+    private long timeToLiveMs = 300000;
+    private boolean http2Enabled = false;           // JDK HttpClient over HTTP/2 instead of the pool
+}
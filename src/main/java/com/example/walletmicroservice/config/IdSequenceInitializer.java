@@ -0,0 +1,64 @@
+package com.example.walletmicroservice.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves the table-backed id sequences past ids that were handed out by AUTO_INCREMENT
+ * before the entities switched to pooled sequences. Runs once the schema is up and
+ * before the web server or schedulers can insert anything.
+ */
+@Component
+@Slf4j
+public class IdSequenceInitializer {
+
+    // Must match allocationSize on the entities' @SequenceGenerator
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final List<String[]> SEQUENCES = List.of(
+            new String[]{"general_ledger_seq", "general_ledger"},
+            new String[]{"payment_transactions_seq", "payment_transactions"},
+            new String[]{"payout_transactions_seq", "payout_transactions"}
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // EntityManagerFactory is only injected so the schema exists before we run
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void alignSequences() {
+        for (String[] sequence : SEQUENCES) {
+            try {
+                alignSequence(sequence[0], sequence[1]);
+            } catch (DataAccessException e) {
+                // Native sequences (non-MySQL) or no table yet - nothing to align
+                log.warn("Could not align id sequence {}: {}", sequence[0], e.getMessage());
+            }
+        }
+    }
+
+    private void alignSequence(String sequenceTable, String entityTable) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + entityTable, Long.class);
+        // The pooled optimizer hands out (next_val - allocationSize, next_val] for each value it reads
+        long required = maxId + ALLOCATION_SIZE + 1;
+
+        List<Long> current = jdbcTemplate.queryForList("SELECT next_val FROM " + sequenceTable, Long.class);
+        if (current.isEmpty()) {
+            jdbcTemplate.update("INSERT INTO " + sequenceTable + " (next_val) VALUES (?)", required);
+        } else if (current.get(0) < required) {
+            jdbcTemplate.update("UPDATE " + sequenceTable + " SET next_val = ?", required);
+        } else {
+            return;
+        }
+        log.info("Id sequence {} moved to {} (max {}.id = {})", sequenceTable, required, entityTable, maxId);
+    }
+}
@@ -0,0 +1,304 @@
+package com.example.walletmicroservice.config;
+
+import com.example.walletmicroservice.config.ExternalTokenValidationFilter.UserInfo;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.JwtParserBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.AlgorithmParameters;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Verifies JWT bearer tokens in process (signature, expiry and claims) so the
+ * auth server round trip is only needed for opaque tokens.
+ * Keys come from either a PEM public key or a JWKS file (RSA and EC keys).
+ */
+@Component
+@Slf4j
+public class LocalJwtVerifier {
+
+    private static final String DEFAULT_KEY_ID = "default";
+    private static final long KEY_RELOAD_INTERVAL_MS = 60_000;
+
+    @Value("${app.auth.mode:remote}")
+    private String authMode;
+
+    @Value("${app.auth.jwt.public-key-location:}")
+    private String publicKeyLocation;
+
+    @Value("${app.auth.jwt.jwks-location:}")
+    private String jwksLocation;
+
+    @Value("${app.auth.jwt.issuer:}")
+    private String issuer;
+
+    @Value("${app.auth.jwt.clock-skew-seconds:30}")
+    private long clockSkewSeconds;
+
+    @Value("${app.auth.jwt.claims.uid:uid}")
+    private String uidClaim;
+
+    @Value("${app.auth.jwt.claims.role:role}")
+    private String roleClaim;
+
+    @Value("${app.auth.jwt.claims.email:email}")
+    private String emailClaim;
+
+    @Value("${app.auth.jwt.claims.mobile:mobile}")
+    private String mobileClaim;
+
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile long keysLoadedAt;
+    private JwtParser parser;
+
+    public LocalJwtVerifier(ResourceLoader resourceLoader) {
+        this.resourceLoader = resourceLoader;
+    }
+
+    @PostConstruct
+    void init() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        if (!StringUtils.hasText(publicKeyLocation) && !StringUtils.hasText(jwksLocation)) {
+            throw new IllegalStateException(
+                    "app.auth.mode=local requires app.auth.jwt.public-key-location or app.auth.jwt.jwks-location");
+        }
+
+        reloadKeys();
+
+        JwtParserBuilder builder = Jwts.parserBuilder()
+                .setSigningKeyResolver(new KeyIdResolver())
+                .setAllowedClockSkewSeconds(clockSkewSeconds);
+        if (StringUtils.hasText(issuer)) {
+            builder.requireIssuer(issuer);
+        }
+        this.parser = builder.build();
+
+        log.info("Local JWT verification enabled with {} key(s)", keys.size());
+    }
+
+    public boolean isEnabled() {
+        return "local".equalsIgnoreCase(authMode);
+    }
+
+    /**
+     * Verify a token locally.
+     *
+     * @return a valid UserInfo when the JWT checks out, an invalid UserInfo when it is a JWT
+     * that must be rejected (bad signature, expired, missing claims), or null when the token
+     * cannot be judged locally (opaque token or unknown key id) and should go to the auth server.
+     */
+    public UserInfo verify(String token) {
+        if (!isEnabled() || !looksLikeJwt(token)) {
+            return null;
+        }
+
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+
+            String uid = claims.get(uidClaim, String.class);
+            if (!StringUtils.hasText(uid)) {
+                return rejected("Token has no " + uidClaim + " claim");
+            }
+
+            return new UserInfo(
+                    true,
+                    uid,
+                    claims.get(roleClaim, String.class),
+                    claims.get(emailClaim, String.class),
+                    claims.get(mobileClaim, String.class),
+                    "Token is valid",
+                    System.currentTimeMillis()
+            );
+        } catch (UnknownKeyException e) {
+            log.debug("No local key for kid {} - falling back to auth server", e.getMessage());
+            return null;
+        } catch (MalformedJwtException e) {
+            return null;
+        } catch (ExpiredJwtException e) {
+            return rejected("Token expired");
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Local JWT verification failed: {}", e.getMessage());
+            return rejected("Invalid token");
+        }
+    }
+
+    private boolean looksLikeJwt(String token) {
+        // header.payload.signature - opaque tokens have no dots
+        int first = token.indexOf('.');
+        int last = token.lastIndexOf('.');
+        return first > 0 && last > first + 1 && token.indexOf('.', first + 1) == last;
+    }
+
+    private UserInfo rejected(String message) {
+        return new UserInfo(false, null, null, null, null, message, System.currentTimeMillis());
+    }
+
+    // ============ KEY LOADING ============
+
+    private synchronized void reloadKeys() {
+        try {
+            Map<String, PublicKey> loaded = StringUtils.hasText(jwksLocation)
+                    ? loadJwks(jwksLocation)
+                    : Map.of(DEFAULT_KEY_ID, loadPemPublicKey(publicKeyLocation));
+            this.keys = Map.copyOf(loaded);
+        } catch (Exception e) {
+            if (keys.isEmpty()) {
+                throw new IllegalStateException("Failed to load JWT verification keys", e);
+            }
+            log.warn("Failed to reload JWT verification keys, keeping previous set: {}", e.getMessage());
+        } finally {
+            this.keysLoadedAt = System.currentTimeMillis();
+        }
+    }
+
+    private boolean isReloadDue() {
+        return System.currentTimeMillis() - keysLoadedAt > KEY_RELOAD_INTERVAL_MS;
+    }
+
+    // Re-checked under the lock: of several requests that saw an unknown kid at once,
+    // only the first reloads and the rest use its result
+    private synchronized void reloadKeysIfDue() {
+        if (isReloadDue()) {
+            reloadKeys();
+        }
+    }
+
+    private PublicKey loadPemPublicKey(String location) throws Exception {
+        String pem = readResource(location)
+                .replaceAll("-----(BEGIN|END) PUBLIC KEY-----", "")
+                .replaceAll("\\s", "");
+        X509EncodedKeySpec spec = new X509EncodedKeySpec(Base64.getDecoder().decode(pem));
+
+        try {
+            return KeyFactory.getInstance("RSA").generatePublic(spec);
+        } catch (Exception rsaFailure) {
+            return KeyFactory.getInstance("EC").generatePublic(spec);
+        }
+    }
+
+    private Map<String, PublicKey> loadJwks(String location) throws Exception {
+        JsonNode jwks = objectMapper.readTree(readResource(location));
+        Map<String, PublicKey> loaded = new HashMap<>();
+
+        for (JsonNode jwk : jwks.path("keys")) {
+            if (jwk.has("use") && !"sig".equals(jwk.path("use").asText())) {
+                continue;
+            }
+
+            String kid = jwk.path("kid").asText(DEFAULT_KEY_ID);
+            String kty = jwk.path("kty").asText();
+
+            if ("RSA".equals(kty)) {
+                RSAPublicKeySpec spec = new RSAPublicKeySpec(
+                        base64UrlUnsigned(jwk.path("n").asText()),
+                        base64UrlUnsigned(jwk.path("e").asText()));
+                loaded.put(kid, KeyFactory.getInstance("RSA").generatePublic(spec));
+            } else if ("EC".equals(kty)) {
+                AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+                parameters.init(new ECGenParameterSpec(curveName(jwk.path("crv").asText())));
+                ECPublicKeySpec spec = new ECPublicKeySpec(
+                        new ECPoint(base64UrlUnsigned(jwk.path("x").asText()),
+                                base64UrlUnsigned(jwk.path("y").asText())),
+                        parameters.getParameterSpec(ECParameterSpec.class));
+                loaded.put(kid, KeyFactory.getInstance("EC").generatePublic(spec));
+            } else {
+                log.warn("Skipping unsupported JWK type {} (kid={})", kty, kid);
+            }
+        }
+
+        if (loaded.isEmpty()) {
+            throw new IllegalStateException("JWKS at " + location + " contains no usable signing keys");
+        }
+        return loaded;
+    }
+
+    private String readResource(String location) throws IOException {
+        Resource resource = resourceLoader.getResource(location);
+        try (InputStream in = resource.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static BigInteger base64UrlUnsigned(String value) {
+        return new BigInteger(1, Base64.getUrlDecoder().decode(value));
+    }
+
+    private static String curveName(String crv) {
+        return switch (crv) {
+            case "P-256" -> "secp256r1";
+            case "P-384" -> "secp384r1";
+            case "P-521" -> "secp521r1";
+            default -> throw new IllegalArgumentException("Unsupported EC curve: " + crv);
+        };
+    }
+
+    // ============ KEY RESOLUTION ============
+
+    private class KeyIdResolver extends SigningKeyResolverAdapter {
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            String kid = header.getKeyId();
+            Map<String, PublicKey> current = keys;
+
+            if (kid == null) {
+                if (current.size() == 1) {
+                    return current.values().iterator().next();
+                }
+                throw new UnknownKeyException("<none>");
+            }
+
+            PublicKey key = current.get(kid);
+            if (key == null && isReloadDue()) {
+                // Keys may have been rotated since startup
+                reloadKeysIfDue();
+                key = keys.get(kid);
+            }
+            if (key == null) {
+                throw new UnknownKeyException(kid);
+            }
+            return key;
+        }
+    }
+
+    private static class UnknownKeyException extends JwtException {
+        UnknownKeyException(String kid) {
+            super(kid);
+        }
+    }
+}
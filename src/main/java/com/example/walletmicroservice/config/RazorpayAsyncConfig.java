@@ -0,0 +1,59 @@
+package com.example.walletmicroservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class RazorpayAsyncConfig {
+
+    // Bounded pool that runs Razorpay round trips so servlet request threads are released
+    // while they are in flight; a full queue rejects instead of growing without limit
+    @Bean
+    public ThreadPoolTaskExecutor razorpayExecutor(@Value("${razorpay.async.threads:32}") int threads,
+                                                   @Value("${razorpay.async.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("razorpay-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    // Payout-side calls get their own threads so they can never occupy the checkout pool
+    @Bean
+    public ThreadPoolTaskExecutor razorpayPayoutExecutor(@Value("${razorpay.async.payout-threads:8}") int threads,
+                                                         @Value("${razorpay.async.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("razorpay-payout-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    // Writes payout statuses fetched from Razorpay back to the database, so the payout threads
+    // only ever wait on Razorpay and never on a pooled connection
+    @Bean
+    public ThreadPoolTaskExecutor payoutUpdateExecutor(@Value("${razorpay.async.payout-update-threads:4}") int threads,
+                                                       @Value("${razorpay.async.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("payout-update-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+}
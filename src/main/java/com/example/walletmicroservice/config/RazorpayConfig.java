@@ -1,22 +1,17 @@
 package com.example.walletmicroservice.config;
 
-import com.razorpay.RazorpayClient;
-import com.razorpay.RazorpayException;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class RazorpayConfig {
 
-    @Value("${razorpay.key.id:rzp_test_S0UsA2ZERziOsT}")
-    private String keyId;
-
-    @Value("${razorpay.key.secret:ZGmyOTRuMxQnOwMKZU623UZt}")
-    private String keySecret;
+    // The SDK client comes from RazorpayCredentials, so it follows key rotation
 
     @Bean
-    public RazorpayClient razorpayClient() throws RazorpayException {
-        return new RazorpayClient(keyId, keySecret);
+    @ConfigurationProperties(prefix = "razorpay.limits")
+    public RazorpayRateLimitSettings razorpayRateLimitSettings() {
+        return new RazorpayRateLimitSettings();
     }
 }
\ No newline at end of file
@@ -0,0 +1,143 @@
+package com.example.walletmicroservice.config;
+
+import com.razorpay.RazorpayClient;
+import com.razorpay.RazorpayException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Razorpay API credentials with the request headers and SDK client derived from them. The
+ * Basic auth value is encoded once per key pair and the headers are shared read-only by every
+ * call; headers and client are rebuilt only when the credentials rotate.
+ *
+ * Rotation without a restart: point {@code razorpay.credentials.file} at a properties file
+ * containing razorpay.key.id and razorpay.key.secret. It is re-read whenever it changes.
+ * Both the REST calls of RazorpayHttpClientService and the SDK calls pick rotated keys up,
+ * as long as callers ask for {@link #client()} per call instead of keeping the client.
+ */
+@Component
+@Slf4j
+public class RazorpayCredentials {
+
+    private static final String KEY_ID = "razorpay.key.id";
+    private static final String KEY_SECRET = "razorpay.key.secret";
+
+    private final Path credentialsFile;
+    private volatile Snapshot current;
+    private volatile FileTime loadedModifiedTime;
+
+    public RazorpayCredentials(@Value("${razorpay.key.id}") String keyId,
+                               @Value("${razorpay.key.secret}") String keySecret,
+                               @Value("${razorpay.credentials.file:}") String credentialsFile) {
+        this.current = new Snapshot(keyId, keySecret);
+        this.credentialsFile = credentialsFile.isBlank() ? null : Path.of(credentialsFile);
+        reloadIfChanged();
+    }
+
+    /**
+     * Immutable key pair and the headers and SDK client for it.
+     */
+    public static final class Snapshot {
+        private final String keyId;
+        private final HttpHeaders headers;
+        private final RazorpayClient client;
+
+        private Snapshot(String keyId, String keySecret) {
+            String auth = keyId + ":" + keySecret;
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.AUTHORIZATION,
+                    "Basic " + Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.UTF_8)));
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+
+            this.keyId = keyId;
+            this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+            try {
+                this.client = new RazorpayClient(keyId, keySecret);
+            } catch (RazorpayException e) {
+                throw new IllegalArgumentException("Cannot create a Razorpay client for key id " + keyId, e);
+            }
+        }
+
+        public String getKeyId() {
+            return keyId;
+        }
+
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        public RazorpayClient getClient() {
+            return client;
+        }
+    }
+
+    /**
+     * Read-only JSON + Basic auth headers for the current key pair; safe to share.
+     */
+    public HttpHeaders headers() {
+        return current.getHeaders();
+    }
+
+    public String keyId() {
+        return current.getKeyId();
+    }
+
+    /**
+     * SDK client for the current key pair. Look it up for every call; do not keep it.
+     */
+    public RazorpayClient client() {
+        return current.getClient();
+    }
+
+    public void rotate(String keyId, String keySecret) {
+        if (keyId == null || keyId.isBlank() || keySecret == null || keySecret.isBlank()) {
+            throw new IllegalArgumentException("Razorpay key id and secret are required");
+        }
+        current = new Snapshot(keyId, keySecret);
+        log.info("Razorpay credentials rotated, key id {}", keyId);
+    }
+
+    @Scheduled(fixedDelayString = "${razorpay.credentials.reload-interval-ms:30000}")
+    public void reloadIfChanged() {
+        if (credentialsFile == null || !Files.isReadable(credentialsFile)) {
+            return;
+        }
+        try {
+            FileTime modified = Files.getLastModifiedTime(credentialsFile);
+            if (modified.equals(loadedModifiedTime)) {
+                return;
+            }
+
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(credentialsFile, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+            String keyId = properties.getProperty(KEY_ID);
+            String keySecret = properties.getProperty(KEY_SECRET);
+            loadedModifiedTime = modified;
+
+            if (keyId == null || keySecret == null) {
+                log.warn("Ignoring {}: {} and {} are both required", credentialsFile, KEY_ID, KEY_SECRET);
+                return;
+            }
+            rotate(keyId.trim(), keySecret.trim());
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to reload Razorpay credentials from {}", credentialsFile, e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.walletmicroservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+
+@Configuration
+public class RazorpayHttpClientConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "razorpay.http")
+    public HttpClientPoolSettings razorpayHttpClientSettings() {
+        return new HttpClientPoolSettings();
+    }
+
+    // Request/response records go through the application's ObjectMapper, streamed to and from the body
+    @Bean
+    public RestTemplate razorpayRestTemplate(PooledHttpClientFactory pooledHttpClientFactory,
+                                             ObjectMapper objectMapper) {
+        RestTemplate restTemplate = new RestTemplate(
+                pooledHttpClientFactory.create("razorpay", razorpayHttpClientSettings()));
+        restTemplate.getMessageConverters().removeIf(MappingJackson2HttpMessageConverter.class::isInstance);
+        restTemplate.getMessageConverters().add(0, new MappingJackson2HttpMessageConverter(objectMapper));
+        return restTemplate;
+    }
+}
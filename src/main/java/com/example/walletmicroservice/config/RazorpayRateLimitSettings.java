@@ -0,0 +1,43 @@
+package com.example.walletmicroservice.config;
+
+import lombok.Data;
+
+/**
+ * Client-side limits per Razorpay endpoint class, bound from razorpay.limits.*. The rates
+ * of all classes together should stay under the account's per-key limit; each class only
+ * ever spends its own share, so a payout batch cannot use up the budget of checkout calls.
+ */
+@Data
+public class RazorpayRateLimitSettings {
+
+    private long maxWaitMs = 2000;           // how long a call may queue for a permit and a token
+    private long defaultRetryAfterMs = 1000; // back-off for a 429 without a usable Retry-After
+
+    private Limit orders = new Limit(20, 20, 20, 250); // waited for on a servlet thread
+    private Limit payments = new Limit(20, 20, 20);
+    private Limit payouts = new Limit(5, 5, 5);
+    private Limit contacts = new Limit(2, 5, 2);
+    private Limit fundAccounts = new Limit(2, 5, 2);
+
+    @Data
+    public static class Limit {
+        private double ratePerSecond;
+        private int burst;
+        private int maxConcurrent;
+        private Long maxWaitMs;                // overrides the shared max-wait-ms for this class
+
+        public Limit() {
+        }
+
+        public Limit(double ratePerSecond, int burst, int maxConcurrent) {
+            this.ratePerSecond = ratePerSecond;
+            this.burst = burst;
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public Limit(double ratePerSecond, int burst, int maxConcurrent, long maxWaitMs) {
+            this(ratePerSecond, burst, maxConcurrent);
+            this.maxWaitMs = maxWaitMs;
+        }
+    }
+}
@@ -2,17 +2,19 @@ package com.example.walletmicroservice.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.context.annotation.Primary;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class RestTemplateConfig {
 
+    // General purpose client; Razorpay and the auth server have their own tuned pools
     @Bean
-    public RestTemplate restTemplate() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(5000);
-        factory.setReadTimeout(10000);
-        return new RestTemplate(factory);
+    @Primary
+    public RestTemplate restTemplate(PooledHttpClientFactory pooledHttpClientFactory) {
+        HttpClientPoolSettings settings = new HttpClientPoolSettings();
+        settings.setConnectTimeoutMs(5000);
+        settings.setResponseTimeoutMs(10000);
+        return new RestTemplate(pooledHttpClientFactory.create("default", settings));
     }
-}
\ No newline at end of file
+}
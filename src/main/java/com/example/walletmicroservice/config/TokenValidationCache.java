@@ -0,0 +1,175 @@
+package com.example.walletmicroservice.config;
+
+import com.example.walletmicroservice.config.ExternalTokenValidationFilter.UserInfo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-process cache of tokens already validated by the external auth server.
+ * Entries are keyed by a SHA-256 hash of the token (the raw token is never stored),
+ * expire after a fixed TTL and are evicted least-recently-used once max size is reached.
+ * Expired entries are kept for a further stale grace period so they can still be served
+ * while the auth server is unavailable.
+ */
+@Component
+public class TokenValidationCache {
+
+    private final boolean enabled;
+    private final long ttlMs;
+    private final long staleGraceMs;
+    private final int maxSize;
+
+    private final Map<String, CachedUser> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter staleHits;
+
+    public TokenValidationCache(@Value("${app.auth.cache.enabled:true}") boolean enabled,
+                                @Value("${app.auth.cache.ttl-ms:60000}") long ttlMs,
+                                @Value("${app.auth.cache.stale-grace-ms:300000}") long staleGraceMs,
+                                @Value("${app.auth.cache.max-size:10000}") int maxSize,
+                                MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.ttlMs = ttlMs;
+        this.staleGraceMs = staleGraceMs;
+        this.maxSize = maxSize;
+
+        // Access-ordered map so the eldest entry is always the least recently used
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUser> eldest) {
+                if (size() > TokenValidationCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        this.hits = Counter.builder("auth.token.cache.requests")
+                .tag("result", "hit")
+                .description("Token validations served from the in-process cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("auth.token.cache.requests")
+                .tag("result", "miss")
+                .description("Token validations that had to go to the auth server")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("auth.token.cache.evictions")
+                .description("Entries evicted because the cache reached max size")
+                .register(meterRegistry);
+        this.staleHits = Counter.builder("auth.token.cache.requests")
+                .tag("result", "stale")
+                .description("Expired validations served while the auth server was unavailable")
+                .register(meterRegistry);
+        Gauge.builder("auth.token.cache.size", this, TokenValidationCache::size)
+                .description("Number of cached token validations")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Hash the token so raw bearer tokens are never held as map keys.
+     */
+    public String keyFor(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Return the cached user for this key, or null when absent or expired.
+     */
+    public UserInfo get(String key) {
+        if (!enabled) {
+            return null;
+        }
+
+        synchronized (entries) {
+            CachedUser cached = entries.get(key);
+            long now = System.currentTimeMillis();
+            if (cached != null && !cached.isExpired(now, ttlMs)) {
+                hits.increment();
+                return cached.userInfo;
+            }
+            if (cached != null && cached.isExpired(now, ttlMs + staleGraceMs)) {
+                entries.remove(key);
+            }
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Return the cached user for this key even if its TTL has passed, as long as it is
+     * still within the stale grace period. Only used when the auth server cannot be reached.
+     */
+    public UserInfo getStale(String key) {
+        if (!enabled) {
+            return null;
+        }
+
+        synchronized (entries) {
+            CachedUser cached = entries.get(key);
+            if (cached != null && !cached.isExpired(System.currentTimeMillis(), ttlMs + staleGraceMs)) {
+                staleHits.increment();
+                return cached.userInfo;
+            }
+        }
+        return null;
+    }
+
+    public void put(String key, UserInfo userInfo) {
+        if (!enabled || userInfo == null || !userInfo.isValid()) {
+            return;
+        }
+
+        synchronized (entries) {
+            entries.put(key, new CachedUser(userInfo, System.currentTimeMillis()));
+        }
+    }
+
+    public void invalidate(String key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static final class CachedUser {
+        private final UserInfo userInfo;
+        private final long cachedAt;
+
+        private CachedUser(UserInfo userInfo, long cachedAt) {
+            this.userInfo = userInfo;
+            this.cachedAt = cachedAt;
+        }
+
+        private boolean isExpired(long now, long ttlMs) {
+            return now - cachedAt >= ttlMs;
+        }
+    }
+}
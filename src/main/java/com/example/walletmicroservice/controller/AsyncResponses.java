@@ -0,0 +1,65 @@
+package com.example.walletmicroservice.controller;
+
+import com.example.walletmicroservice.exception.GlobalExceptionHandler;
+import com.example.walletmicroservice.exception.RazorpayRateLimitException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Bridges CompletableFuture results to async servlet responses, so the request thread is
+ * returned to Tomcat while the call is in flight. Errors map the same way the blocking
+ * endpoints map them: RuntimeException to {@code clientErrorStatus}, anything else to 500,
+ * plus 429 (with Retry-After) when a Razorpay rate limit applies, 504 for a timeout and 503
+ * when the executor is saturated.
+ */
+@Slf4j
+final class AsyncResponses {
+
+    private AsyncResponses() {
+    }
+
+    static <T> DeferredResult<ResponseEntity<?>> deferred(CompletableFuture<T> future,
+                                                          HttpStatus clientErrorStatus,
+                                                          String errorMessage) {
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>();
+        future.whenComplete((body, error) -> {
+            if (error == null) {
+                result.setResult(ResponseEntity.ok(body));
+            } else {
+                result.setResult(toErrorResponse(error, clientErrorStatus, errorMessage));
+            }
+        });
+        return result;
+    }
+
+    private static ResponseEntity<?> toErrorResponse(Throwable error, HttpStatus clientErrorStatus,
+                                                     String errorMessage) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+
+        if (cause instanceof RazorpayRateLimitException rateLimited) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, GlobalExceptionHandler.retryAfterSeconds(rateLimited))
+                    .body(rateLimited.getMessage());
+        }
+        if (cause instanceof TimeoutException) {
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(errorMessage + ": Razorpay timed out");
+        }
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorMessage + ": too many requests in flight");
+        }
+        if (cause instanceof RuntimeException) {
+            return ResponseEntity.status(clientErrorStatus).body(cause.getMessage());
+        }
+        log.error(errorMessage, cause);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorMessage);
+    }
+}
@@ -5,9 +5,11 @@ import com.example.walletmicroservice.entity.ChartOfAccounts;
 import com.example.walletmicroservice.service.ChartOfAccountsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/coa/")
@@ -34,4 +36,10 @@ public class ChartAcController {
     ) {
         return service.update(accountId, request);
     }
+
+    @PostMapping("/refresh")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, Integer> refresh() {
+        return Map.of("accounts", service.refreshRegistry());
+    }
 }
\ No newline at end of file
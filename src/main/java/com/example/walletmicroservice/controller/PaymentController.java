@@ -1,21 +1,25 @@
 package com.example.walletmicroservice.controller;
 
 import com.example.walletmicroservice.dto.OrderRequestDTO;
+import com.example.walletmicroservice.dto.PaymentMetadataDTO;
 import com.example.walletmicroservice.dto.OrderResponseDTO;
+import com.example.walletmicroservice.dto.PaymentTransactionEventDTO;
 import com.example.walletmicroservice.entity.PaymentTransaction;
+import com.example.walletmicroservice.exception.RazorpayRateLimitException;
 import com.example.walletmicroservice.service.RazorpayService;
+import com.example.walletmicroservice.service.SignatureVerifier;
+import com.example.walletmicroservice.service.WebhookInboxService;
 import com.razorpay.RazorpayException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.json.JSONObject;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.security.SignatureException;
-import java.util.Base64;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/payments")
@@ -23,7 +27,11 @@ import java.util.Base64;
 @Slf4j
 public class PaymentController {
 
+    private static final int MAX_TIMELINE_EVENTS = 500;
+
     private final RazorpayService razorpayService;
+    private final SignatureVerifier signatureVerifier;
+    private final WebhookInboxService webhookInboxService;
 
     // ================================
     // STEP 1: ORDER CREATION
@@ -39,6 +47,8 @@ public class PaymentController {
         try {
             OrderResponseDTO response = razorpayService.createOrder(request);
             return ResponseEntity.ok(response);
+        } catch (RazorpayRateLimitException e) {
+            throw e; // 429 with Retry-After, see GlobalExceptionHandler
         } catch (RazorpayException e) {
             log.error("Error creating Razorpay order", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -108,26 +118,49 @@ public class PaymentController {
     }
 
     /**
-     * 4. Get Payment Details
-     * GET /api/v1/payments/details/{paymentId}
-     * Description: Get detailed payment information from Razorpay
+     * GET /api/v1/payments/metadata/{transactionId}
+     * Description: Order, payment and refund metadata of a transaction (not included in list views)
      */
-    @GetMapping("/details/{paymentId}")
-    public ResponseEntity<?> getPaymentDetails(@PathVariable String paymentId) {
+    @GetMapping("/metadata/{transactionId}")
+    public ResponseEntity<?> getPaymentMetadata(@PathVariable String transactionId) {
         try {
-            JSONObject paymentDetails = razorpayService.getPaymentDetails(paymentId);
-            return ResponseEntity.ok(paymentDetails.toString());
-        } catch (RazorpayException e) {
-            log.error("Error fetching payment details", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error fetching payment details");
+            PaymentMetadataDTO metadata = razorpayService.getPaymentMetadata(transactionId);
+            return ResponseEntity.ok(metadata);
         } catch (Exception e) {
-            log.error("Unexpected error", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Unexpected error");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body("Transaction not found");
         }
     }
 
+    /**
+     * GET /api/v1/payments/timeline/{transactionId}?afterId=0&limit=100
+     * Description: Append-only event timeline of a transaction, oldest first.
+     * Pass the id of the last event received as afterId to read further.
+     */
+    @GetMapping("/timeline/{transactionId}")
+    public ResponseEntity<?> getTransactionTimeline(@PathVariable String transactionId,
+                                                    @RequestParam(defaultValue = "0") long afterId,
+                                                    @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > MAX_TIMELINE_EVENTS) {
+            return ResponseEntity.badRequest().body("limit must be between 1 and " + MAX_TIMELINE_EVENTS);
+        }
+        List<PaymentTransactionEventDTO> timeline = razorpayService.getTransactionTimeline(transactionId, afterId, limit);
+        return ResponseEntity.ok(timeline);
+    }
+
+    /**
+     * 4. Get Payment Details
+     * GET /api/v1/payments/details/{paymentId}
+     * Description: Get detailed payment information from Razorpay.
+     * Served asynchronously - the request thread is released during the Razorpay call.
+     */
+    @GetMapping("/details/{paymentId}")
+    public DeferredResult<ResponseEntity<?>> getPaymentDetails(@PathVariable String paymentId) {
+        return AsyncResponses.deferred(
+                razorpayService.getPaymentDetails(paymentId).thenApply(JSONObject::toString),
+                HttpStatus.INTERNAL_SERVER_ERROR, "Error fetching payment details");
+    }
+
 
     // ================================
     // STEP 5: WEBHOOK (Automated)
@@ -136,25 +169,23 @@ public class PaymentController {
     /**
      * 7. Razorpay Webhook
      * POST /api/v1/payments/webhook
-     * Description: Receive payment notifications from Razorpay
+     * Description: Receive payment notifications from Razorpay.
+     * The verified body is stored in the webhook inbox and processed asynchronously.
      */
     @PostMapping("/webhook")
     public ResponseEntity<?> handleWebhook(
             @RequestBody String payload,
-            @RequestHeader("X-Razorpay-Signature") String razorpaySignature) {
+            @RequestHeader("X-Razorpay-Signature") String razorpaySignature,
+            @RequestHeader(value = "X-Razorpay-Event-Id", required = false) String eventId) {
 
         try {
             // Verify webhook signature
-            String secret = System.getenv("RAZORPAY_WEBHOOK_SECRET");
-            String expectedSignature = calculateRFC2104HMAC(payload, secret);
-
-            if (!expectedSignature.equals(razorpaySignature)) {
+            if (!signatureVerifier.verifyWebhookSignature(payload, razorpaySignature)) {
                 log.error("Invalid webhook signature");
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid signature");
             }
 
-            JSONObject webhookPayload = new JSONObject(payload);
-            razorpayService.handleWebhook(webhookPayload);
+            webhookInboxService.enqueue(payload, eventId);
 
             return ResponseEntity.ok().build();
 
@@ -164,17 +195,17 @@ public class PaymentController {
         }
     }
 
-
-
-    private String calculateRFC2104HMAC(String data, String secret) throws java.security.SignatureException {
-        try {
-            SecretKeySpec signingKey = new SecretKeySpec(secret.getBytes(), "HmacSHA256");
-            Mac mac = Mac.getInstance("HmacSHA256");
-            mac.init(signingKey);
-            byte[] rawHmac = mac.doFinal(data.getBytes());
-            return Base64.getEncoder().encodeToString(rawHmac);
-        } catch (Exception e) {
-            throw new SignatureException("Failed to generate HMAC: " + e.getMessage());
+    /**
+     * 8. Requeue Failed Webhook (Admin)
+     * POST /api/v1/payments/webhook/inbox/{id}/requeue
+     * Description: Process a webhook inbox entry that failed permanently again
+     */
+    @PostMapping("/webhook/inbox/{id}/requeue")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> requeueWebhook(@PathVariable Long id) {
+        if (!webhookInboxService.requeue(id)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No failed webhook inbox entry " + id);
         }
+        return ResponseEntity.accepted().build();
     }
-}
\ No newline at end of file
+}
@@ -10,6 +10,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/payouts")
@@ -22,33 +25,17 @@ public class PayoutController {
     // ================= CONTACT APIS =================
 
     @PostMapping("/contacts")
-    public ResponseEntity<?> createContact(@RequestBody ContactRequestDTO request) {
-        try {
-            JSONObject contact = payoutService.createOrGetContact(request);
-            return ResponseEntity.ok(contact.toString());
-        } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
-        } catch (Exception e) {
-            log.error("Error creating contact", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error creating contact");
-        }
+    public DeferredResult<ResponseEntity<?>> createContact(@RequestBody ContactRequestDTO request) {
+        return AsyncResponses.deferred(payoutService.createOrGetContact(request),
+                HttpStatus.BAD_REQUEST, "Error creating contact");
     }
 
     // ================= FUND ACCOUNT APIS =================
 
     @PostMapping("/fund-accounts")
-    public ResponseEntity<?> createFundAccount(@RequestBody FundAccountRequestDTO request) {
-        try {
-            JSONObject fundAccount = payoutService.createFundAccount(request);
-            return ResponseEntity.ok(fundAccount.toString());
-        } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
-        } catch (Exception e) {
-            log.error("Error creating fund account", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error creating fund account");
-        }
+    public DeferredResult<ResponseEntity<?>> createFundAccount(@RequestBody FundAccountRequestDTO request) {
+        return AsyncResponses.deferred(payoutService.createFundAccount(request),
+                HttpStatus.BAD_REQUEST, "Error creating fund account");
     }
 
     // ================= Wallet APIS =================
@@ -82,17 +69,14 @@ public class PayoutController {
     }
     // ================= PAYOUT APIS =================
     @GetMapping("/status/{payoutId}")
-    public ResponseEntity<?> getPayoutStatus(@PathVariable String payoutId) {
+    public DeferredResult<ResponseEntity<?>> getPayoutStatus(@PathVariable String payoutId) {
+        CompletableFuture<PayoutTransaction> payout;
         try {
-            PayoutTransaction payout = payoutService.getPayoutStatus(payoutId);
-            return ResponseEntity.ok(payout);
+            payout = payoutService.getPayoutStatus(payoutId);
         } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
-        } catch (Exception e) {
-            log.error("Error fetching payout status", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error fetching payout status");
+            payout = CompletableFuture.failedFuture(e);
         }
+        return AsyncResponses.deferred(payout, HttpStatus.NOT_FOUND, "Error fetching payout status");
     }
 
     @GetMapping("/user/{customerId}")
@@ -101,7 +85,7 @@ public class PayoutController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         try {
-            Page<PayoutTransaction> payouts = payoutService.getUserPayouts(customerId, page, size);
+            Page<PayoutSummaryDTO> payouts = payoutService.getUserPayouts(customerId, page, size);
             return ResponseEntity.ok(payouts);
         } catch (Exception e) {
             log.error("Error fetching user payouts", e);
@@ -1,17 +1,23 @@
 package com.example.walletmicroservice.controller;
 
+import com.example.walletmicroservice.dto.PaymentTransactionSummaryDTO;
 import com.example.walletmicroservice.dto.RefundApprovalDTO;
 import com.example.walletmicroservice.dto.RefundRequestDTO;
 import com.example.walletmicroservice.entity.PaymentTransaction;
 import com.example.walletmicroservice.service.RazorpayService;
+import com.example.walletmicroservice.service.WalletBalanceCheckpointService;
+import com.example.walletmicroservice.service.WalletBalanceService;
 import com.razorpay.RazorpayException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+
 
 @RestController
 @RequestMapping("/api/v1/")
@@ -20,6 +26,8 @@ import org.springframework.web.bind.annotation.*;
 public class RefundController {
 
     private final RazorpayService razorpayService;
+    private final WalletBalanceService walletBalanceService;
+    private final WalletBalanceCheckpointService walletBalanceCheckpointService;
 
     // ================================
     // STEP 1: REFUNDS
@@ -55,7 +63,7 @@ public class RefundController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         try {
-            Page<PaymentTransaction> pendingRefunds = razorpayService.getPendingRefunds(page, size);
+            Page<PaymentTransactionSummaryDTO> pendingRefunds = razorpayService.getPendingRefunds(page, size);
             return ResponseEntity.ok(pendingRefunds);
         } catch (Exception e) {
             log.error("Error fetching pending refunds", e);
@@ -83,6 +91,28 @@ public class RefundController {
         }
     }
 
+    // ================================
+    // WALLET BALANCES
+    // ================================
+
+    /**
+     * POST /api/v1/wallet/balance/rebuild
+     * Description: Recompute the materialized wallet balances from the general ledger
+     * Requires ADMIN role
+     */
+    @PostMapping("/wallet/balance/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuildWalletBalances() {
+        try {
+            WalletBalanceService.RebuildResult result = walletBalanceService.rebuild();
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            log.error("Error rebuilding wallet balances", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error rebuilding wallet balances");
+        }
+    }
+
 
 /**
  * POST /api/v1/payments/refund/request
@@ -110,18 +140,35 @@ public class RefundController {
  */
 
 
-/**
- * GET /api/v1/payments/wallet/balance/{customerId}
- */
-//    @GetMapping("/wallet/balance/{customerId}")
-//    public ResponseEntity<?> getWalletBalance(@PathVariable String customerId) {
-//        try {
-//            BigDecimal balance = razorpayService.calculateWalletBalance(customerId);
-//            return ResponseEntity.ok(balance);
-//        } catch (Exception e) {
-//            log.error("Error calculating wallet balance", e);
-//            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-//                    .body("Error calculating wallet balance");
-//        }
-//    }
+    /**
+     * GET /api/v1/wallet/balance/{customerId}
+     * Description: Wallet balance from the materialized wallet_balances row (the balance debits are checked against)
+     */
+    @GetMapping("/wallet/balance/{customerId}")
+    public ResponseEntity<?> getWalletBalance(@PathVariable String customerId) {
+        try {
+            BigDecimal balance = walletBalanceService.getBalance(customerId);
+            return ResponseEntity.ok(balance);
+        } catch (Exception e) {
+            log.error("Error reading wallet balance", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error reading wallet balance");
+        }
+    }
+
+    /**
+     * GET /api/v1/wallet/balance/{customerId}/ledger
+     * Description: Wallet balance recomputed from the general ledger (latest checkpoint plus postings since)
+     */
+    @GetMapping("/wallet/balance/{customerId}/ledger")
+    public ResponseEntity<?> getLedgerWalletBalance(@PathVariable String customerId) {
+        try {
+            BigDecimal balance = walletBalanceCheckpointService.getBalance(customerId);
+            return ResponseEntity.ok(balance);
+        } catch (Exception e) {
+            log.error("Error calculating wallet balance", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error calculating wallet balance");
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package com.example.walletmicroservice.controller;
 
-import com.example.walletmicroservice.entity.PaymentTransaction;
+import com.example.walletmicroservice.dto.CursorPage;
+import com.example.walletmicroservice.dto.PaymentTransactionSummaryDTO;
 import com.example.walletmicroservice.service.RazorpayService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,6 +18,8 @@ import java.util.List;
 @Slf4j
 public class UserController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final RazorpayService razorpayService;
 
     // 1. Paginated API
@@ -28,7 +31,13 @@ public class UserController {
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "DESC") String sortDirection) {
 
-        Page<PaymentTransaction> transactions = razorpayService
+        if (page < 0) {
+            return ResponseEntity.badRequest().body("page must not be negative");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Page<PaymentTransactionSummaryDTO> transactions = razorpayService
                 .getUserTransactions(userId, page, size, sortBy, sortDirection);
 
         return ResponseEntity.ok(transactions);
@@ -40,9 +49,31 @@ public class UserController {
             @PathVariable String userId,
             @RequestParam(defaultValue = "20") int limit) {
 
-        List<PaymentTransaction> recentTransactions = razorpayService
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        List<PaymentTransactionSummaryDTO> recentTransactions = razorpayService
                 .getRecentUserTransactions(userId, limit);
 
         return ResponseEntity.ok(recentTransactions);
     }
+
+    // 3. Cursor (keyset) API - cost per page does not grow with depth
+    @GetMapping("/{userId}/transactions/cursor")
+    public ResponseEntity<?> getUserTransactionsByCursor(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        try {
+            CursorPage<PaymentTransactionSummaryDTO> transactions = razorpayService
+                    .getUserTransactionsByCursor(userId, cursor, size);
+            return ResponseEntity.ok(transactions);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 }
\ No newline at end of file
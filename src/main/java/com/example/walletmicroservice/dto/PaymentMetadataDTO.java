@@ -0,0 +1,25 @@
+package com.example.walletmicroservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The metadata sections of one payment transaction, embedded as JSON rather than strings.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentMetadataDTO {
+    private String transactionId;
+
+    @JsonRawValue
+    private String orderMetadata;
+
+    @JsonRawValue
+    private String paymentMetadata;
+
+    @JsonRawValue
+    private String refundMetadata;
+}
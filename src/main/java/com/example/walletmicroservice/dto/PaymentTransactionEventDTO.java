@@ -0,0 +1,27 @@
+package com.example.walletmicroservice.dto;
+
+import com.example.walletmicroservice.entity.PaymentTransactionEvent;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of a transaction timeline, with the payload embedded as JSON.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentTransactionEventDTO {
+    private Long id;
+    private String transactionId;
+    private PaymentTransactionEvent.EventType eventType;
+
+    @JsonRawValue
+    private String payload;
+
+    private String createdUid;
+    private LocalDateTime createdAt;
+}
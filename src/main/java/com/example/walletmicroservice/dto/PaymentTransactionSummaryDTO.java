@@ -0,0 +1,39 @@
+package com.example.walletmicroservice.dto;
+
+import com.example.walletmicroservice.entity.PaymentTransaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * List-view columns of a payment transaction, selected directly by JPQL constructor
+ * expressions so the metadata JSON columns are never read for lists.
+ * Field order must match the constructor expressions in PaymentTransactionRepository.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentTransactionSummaryDTO {
+    private Long id;
+    private String transactionId;
+    private String customerId;
+    private String orderId;
+    private String razorpayOrderId;
+    private String razorpayPaymentId;
+    private PaymentTransaction.TransactionType transactionType;
+    private PaymentTransaction.PaymentMethod paymentMethod;
+    private BigDecimal amount;
+    private String currency;
+    private PaymentTransaction.TransactionStatus status;
+    private PaymentTransaction.RefundStatus refundStatus;
+    private PaymentTransaction.RefundApprovalStatus refundApprovalStatus;
+    private BigDecimal refundAmount;
+    private Boolean isPartialRefund;
+    private String refundReason;
+    private LocalDateTime refundRequestedAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,35 @@
+package com.example.walletmicroservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * List-view columns of a payout, without the metadata JSON column.
+ * Field order must match the constructor expression in PayoutTransactionRepository.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayoutSummaryDTO {
+    private Long id;
+    private String payoutId;
+    private String customerId;
+    private String fundAccountId;
+    private BigDecimal amount;
+    private String currency;
+    private String mode;
+    private String purpose;
+    private String referenceId;
+    private String razorpayPayoutId;
+    private String status;
+    private String utrNumber;
+    private String failureReason;
+    private BigDecimal fees;
+    private BigDecimal tax;
+    private LocalDateTime createdAt;
+    private LocalDateTime processedAt;
+}
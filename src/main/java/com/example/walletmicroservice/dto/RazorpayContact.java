@@ -0,0 +1,27 @@
+package com.example.walletmicroservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+import java.util.Map;
+
+/**
+ * Contact entity returned by Razorpay X.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record RazorpayContact(
+        String id,
+        String entity,
+        String name,
+        String contact,
+        String email,
+        String type,
+        String referenceId,
+        Boolean active,
+        Map<String, Object> notes,
+        Long createdAt) {
+}
@@ -0,0 +1,18 @@
+package com.example.walletmicroservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+/**
+ * Body of POST /contacts.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record RazorpayContactRequest(
+        String name,
+        String email,
+        String contact,
+        String type,
+        String referenceId) {
+}
@@ -0,0 +1,26 @@
+package com.example.walletmicroservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+/**
+ * Body of POST /fund_accounts; exactly one of bankAccount / vpa is set, matching accountType.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record RazorpayFundAccountRequest(
+        String contactId,
+        String accountType,
+        BankAccount bankAccount,
+        Vpa vpa) {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+    public record BankAccount(String name, String ifsc, String accountNumber) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Vpa(String address) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.walletmicroservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+/**
+ * Payout entity returned by Razorpay X. Amounts, fees and tax are in paise.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record RazorpayPayout(
+        String id,
+        String entity,
+        String fundAccountId,
+        Long amount,
+        String currency,
+        Long fees,
+        Long tax,
+        String status,
+        String utr,
+        String mode,
+        String purpose,
+        String referenceId,
+        String narration,
+        String failureReason,
+        Long createdAt) {
+}
@@ -0,0 +1,24 @@
+package com.example.walletmicroservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+import java.util.Map;
+
+/**
+ * Body of POST /payouts. Amount is in paise.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record RazorpayPayoutRequest(
+        String accountNumber,
+        String fundAccountId,
+        long amount,
+        String currency,
+        String mode,
+        String purpose,
+        String referenceId,
+        String narration,
+        Map<String, Object> notes) {
+}
@@ -10,12 +10,16 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "general_ledger")
+@Table(name = "general_ledger", indexes = {
+        @Index(name = "idx_general_ledger_customer_ledger_type_created", columnList = "customer_id, ledger_type, created_at")
+})
 @Data
 public class GeneralLedger {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence (a table on MySQL) instead of IDENTITY so inserts can be JDBC-batched
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "general_ledger_id")
+    @SequenceGenerator(name = "general_ledger_id", sequenceName = "general_ledger_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "ledger_entry_id", unique = true, nullable = false, length = 100)
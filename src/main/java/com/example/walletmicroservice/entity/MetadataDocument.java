@@ -0,0 +1,57 @@
+package com.example.walletmicroservice.entity;
+
+import org.json.JSONObject;
+
+/**
+ * Parsed form of one JSON metadata column. The column text is parsed on first access only
+ * and kept for the lifetime of the entity instance; edits go to the parsed object and are
+ * serialized back to the column once, when the entity is flushed.
+ */
+final class MetadataDocument {
+
+    private JSONObject parsed;
+    private boolean dirty;
+
+    /**
+     * The parsed document, for reading.
+     */
+    JSONObject read(String raw) {
+        if (parsed == null) {
+            parsed = raw != null ? new JSONObject(raw) : new JSONObject();
+        }
+        return parsed;
+    }
+
+    /**
+     * The parsed document, for changing; it will be written back at flush.
+     */
+    JSONObject edit(String raw) {
+        JSONObject document = read(raw);
+        dirty = true;
+        return document;
+    }
+
+    void replace(JSONObject document) {
+        parsed = document;
+        dirty = true;
+    }
+
+    /**
+     * Serialized document if it changed since the last call, otherwise null.
+     */
+    String serializeIfDirty() {
+        if (!dirty) {
+            return null;
+        }
+        dirty = false;
+        return parsed.toString();
+    }
+
+    /**
+     * Forget the parsed form, e.g. after the column text was set directly.
+     */
+    void reset() {
+        parsed = null;
+        dirty = false;
+    }
+}
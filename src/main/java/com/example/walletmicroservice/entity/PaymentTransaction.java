@@ -1,7 +1,12 @@
 package com.example.walletmicroservice.entity;
 
 import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.json.JSONObject;
@@ -12,13 +17,18 @@ import java.time.LocalDateTime;
 import static com.example.walletmicroservice.util.SecurityUtil.getCurrentUserId;
 
 @Entity
-@Table(name = "payment_transactions")
+@Table(name = "payment_transactions", indexes = {
+        @Index(name = "idx_payment_transactions_customer_created", columnList = "customer_id, created_at, id"),
+        @Index(name = "idx_payment_transactions_razorpay_order_id", columnList = "razorpay_order_id")
+})
+@Access(AccessType.FIELD)
 @Data
 public class PaymentTransaction {
 
     // ============ PRIMARY KEY ============
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_transactions_id")
+    @SequenceGenerator(name = "payment_transactions_id", sequenceName = "payment_transactions_seq", allocationSize = 50)
     private Long id;
 
     // ============ TRANSACTION IDENTIFIERS ============
@@ -109,15 +119,46 @@ public class PaymentTransaction {
     private String originalTransactionId;
 
     // ============ 3 METADATA SECTIONS ============
-    @Column(name = "order_metadata", columnDefinition = "JSON")
+    // Mapped on the getters below (property access), so whatever Hibernate reads - at flush, or
+    // when merging a detached instance - includes edits still pending in the parsed documents.
+    // Left out of equals/hashCode/toString, which would otherwise serialize through the getters
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private String orderMetadata;
 
-    @Column(name = "payment_metadata", columnDefinition = "JSON")
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private String paymentMetadata;
 
-    @Column(name = "refund_metadata", columnDefinition = "JSON")
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private String refundMetadata;
 
+    // Parsed lazily, cached per instance and serialized back in serializeMetadata() when read
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final MetadataDocument orderMetadataDocument = new MetadataDocument();
+
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final MetadataDocument paymentMetadataDocument = new MetadataDocument();
+
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final MetadataDocument refundMetadataDocument = new MetadataDocument();
+
     // ============ TIMESTAMPS ============
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
@@ -179,15 +220,15 @@ public class PaymentTransaction {
         createOrder.put("razorpay_response", razorpayResponse);
         createOrder.put("created_at", LocalDateTime.now().toString());
         orderMeta.put("create_order", createOrder);
-        this.orderMetadata = orderMeta.toString(); // Use = not +=
+        orderMetadataDocument.replace(orderMeta); // Replace, not merge
     }
 
     /**
      * METHOD 2: For PAYMENT CAPTURE action
-     * Called when payment is successfully captured
+     * Called when payment is successfully captured.
+     * The Razorpay payment entity goes to the PAYMENT_CAPTURED event, not the metadata.
      */
-    public void setPaymentCaptureFields(String razorpayPaymentId, String paymentMethod,
-                                        JSONObject paymentDetails, JSONObject webhookPayload) {
+    public void setPaymentCaptureFields(String razorpayPaymentId, String paymentMethod) {
         this.razorpayPaymentId = razorpayPaymentId;
         this.paymentMethod = PaymentMethod.valueOf(paymentMethod.toUpperCase());
         this.status = TransactionStatus.CAPTURED;
@@ -195,18 +236,14 @@ public class PaymentTransaction {
         this.updatedAt = LocalDateTime.now();
 
         // Set payment metadata - CREATE NEW or MERGE
-        JSONObject paymentMeta = this.paymentMetadata != null ?
-                new JSONObject(this.paymentMetadata) : new JSONObject();
+        JSONObject paymentMeta = paymentMetadataDocument.edit(this.paymentMetadata);
 
         JSONObject captureDetails = new JSONObject();
         captureDetails.put("razorpay_payment_id", razorpayPaymentId);
         captureDetails.put("captured_at", LocalDateTime.now().toString());
         captureDetails.put("payment_method", paymentMethod);
-        captureDetails.put("payment_details", paymentDetails);
-        captureDetails.put("webhook_payload", webhookPayload);
 
         paymentMeta.put("payment_capture", captureDetails);
-        this.paymentMetadata = paymentMeta.toString();
     }
 
     /**
@@ -221,8 +258,7 @@ public class PaymentTransaction {
         this.updatedAt = LocalDateTime.now();
 
         // Update payment metadata - MERGE with existing
-        JSONObject paymentMeta = this.paymentMetadata != null ?
-                new JSONObject(this.paymentMetadata) : new JSONObject();
+        JSONObject paymentMeta = paymentMetadataDocument.edit(this.paymentMetadata);
 
         JSONObject verification = new JSONObject();
         verification.put("verified_at", LocalDateTime.now().toString());
@@ -230,7 +266,6 @@ public class PaymentTransaction {
         verification.put("verification_details", verificationDetails);
 
         paymentMeta.put("payment_verification", verification);
-        this.paymentMetadata = paymentMeta.toString();
     }
 
     /**
@@ -262,7 +297,7 @@ public class PaymentTransaction {
         requestDetails.put("requested_at", LocalDateTime.now().toString());
 
         refundMeta.put("refund_request", requestDetails);
-        this.refundMetadata = refundMeta.toString();
+        refundMetadataDocument.replace(refundMeta);
     }
 
     /**
@@ -288,8 +323,7 @@ public class PaymentTransaction {
         }
 
         // Update refund metadata - MERGE with existing
-        JSONObject refundMeta = this.refundMetadata != null ?
-                new JSONObject(this.refundMetadata) : new JSONObject();
+        JSONObject refundMeta = refundMetadataDocument.edit(this.refundMetadata);
 
         JSONObject approvalDetails = new JSONObject();
         approvalDetails.put("approver_id", approverId);
@@ -299,14 +333,14 @@ public class PaymentTransaction {
         approvalDetails.put("approved_at", LocalDateTime.now().toString());
 
         refundMeta.put("refund_approval", approvalDetails);
-        this.refundMetadata = refundMeta.toString();
     }
 
     /**
      * METHOD 6: For REFUND PROCESSING action
-     * Called when refund is processed with Razorpay
+     * Called when refund is processed with Razorpay.
+     * The Razorpay refund entity goes to the REFUND_PROCESSED event, not the metadata.
      */
-    public void setRefundProcessingFields(String razorpayRefundId, JSONObject razorpayResponse) {
+    public void setRefundProcessingFields(String razorpayRefundId) {
         this.razorpayRefundId = razorpayRefundId;
         this.refundStatus = RefundStatus.PROCESSED;
         this.refundApprovalStatus = RefundApprovalStatus.APPROVED;
@@ -316,16 +350,13 @@ public class PaymentTransaction {
         this.updatedAt = LocalDateTime.now();
 
         // Update refund metadata - MERGE with existing
-        JSONObject refundMeta = this.refundMetadata != null ?
-                new JSONObject(this.refundMetadata) : new JSONObject();
+        JSONObject refundMeta = refundMetadataDocument.edit(this.refundMetadata);
 
         JSONObject processingDetails = new JSONObject();
         processingDetails.put("razorpay_refund_id", razorpayRefundId);
-        processingDetails.put("razorpay_response", razorpayResponse);
         processingDetails.put("processed_at", LocalDateTime.now().toString());
 
         refundMeta.put("refund_processing", processingDetails);
-        this.refundMetadata = refundMeta.toString();
     }
 
     /**
@@ -338,8 +369,7 @@ public class PaymentTransaction {
         this.updatedAt = LocalDateTime.now();
 
         // Update payment metadata - MERGE with existing
-        JSONObject paymentMeta = this.paymentMetadata != null ?
-                new JSONObject(this.paymentMetadata) : new JSONObject();
+        JSONObject paymentMeta = paymentMetadataDocument.edit(this.paymentMetadata);
 
         JSONObject failureInfo = new JSONObject();
         failureInfo.put("failed_at", LocalDateTime.now().toString());
@@ -347,7 +377,6 @@ public class PaymentTransaction {
         failureInfo.put("failure_details", failureDetails);
 
         paymentMeta.put("payment_failure", failureInfo);
-        this.paymentMetadata = paymentMeta.toString();
     }
 
     /**
@@ -368,70 +397,102 @@ public class PaymentTransaction {
         return existing;
     }
 
-    /**
-     * HELPER: Add history entry to refund metadata
-     */
-    public void addRefundHistory(String action, String userId, String notes) {
-        if (this.refundMetadata == null) {
-            this.refundMetadata = new JSONObject().toString();
-        }
-
-        JSONObject refundMeta = new JSONObject(this.refundMetadata);
-        if (!refundMeta.has("history")) {
-            refundMeta.put("history", new org.json.JSONArray());
-        }
-
-        org.json.JSONArray history = refundMeta.getJSONArray("history");
-        JSONObject historyEntry = new JSONObject();
-        historyEntry.put("action", action);
-        historyEntry.put("user_id", userId);
-        historyEntry.put("timestamp", LocalDateTime.now().toString());
-        historyEntry.put("notes", notes);
-
-        history.put(historyEntry);
-        refundMeta.put("history", history);
-        this.refundMetadata = refundMeta.toString();
-    }
-
     /**
      * HELPER: Get order metadata as JSONObject
+     * Returns the cached document; change it through updateOrderMetadataField.
      */
+    @JsonIgnore
     public JSONObject getOrderMetadataJson() {
-        return this.orderMetadata != null ? new JSONObject(this.orderMetadata) : new JSONObject();
+        return orderMetadataDocument.read(this.orderMetadata);
     }
 
     /**
      * HELPER: Get payment metadata as JSONObject
      */
+    @JsonIgnore
     public JSONObject getPaymentMetadataJson() {
-        return this.paymentMetadata != null ? new JSONObject(this.paymentMetadata) : new JSONObject();
+        return paymentMetadataDocument.read(this.paymentMetadata);
     }
 
     /**
      * HELPER: Get refund metadata as JSONObject
      */
+    @JsonIgnore
     public JSONObject getRefundMetadataJson() {
-        return this.refundMetadata != null ? new JSONObject(this.refundMetadata) : new JSONObject();
+        return refundMetadataDocument.read(this.refundMetadata);
     }
 
     /**
      * HELPER: Update specific field in metadata
      */
     public void updateOrderMetadataField(String field, Object value) {
-        JSONObject orderMeta = getOrderMetadataJson();
-        orderMeta.put(field, value);
-        this.orderMetadata = orderMeta.toString();
+        orderMetadataDocument.edit(this.orderMetadata).put(field, value);
+        this.updatedAt = LocalDateTime.now();
     }
 
     public void updatePaymentMetadataField(String field, Object value) {
-        JSONObject paymentMeta = getPaymentMetadataJson();
-        paymentMeta.put(field, value);
-        this.paymentMetadata = paymentMeta.toString();
+        paymentMetadataDocument.edit(this.paymentMetadata).put(field, value);
+        this.updatedAt = LocalDateTime.now();
     }
 
     public void updateRefundMetadataField(String field, Object value) {
-        JSONObject refundMeta = getRefundMetadataJson();
-        refundMeta.put(field, value);
-        this.refundMetadata = refundMeta.toString();
+        refundMetadataDocument.edit(this.refundMetadata).put(field, value);
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // ============ METADATA COLUMNS ============
+
+    @Access(AccessType.PROPERTY)
+    @Column(name = "order_metadata", columnDefinition = "JSON")
+    public String getOrderMetadata() {
+        serializeMetadata();
+        return orderMetadata;
+    }
+
+    public void setOrderMetadata(String orderMetadata) {
+        this.orderMetadata = orderMetadata;
+        orderMetadataDocument.reset();
+    }
+
+    @Access(AccessType.PROPERTY)
+    @Column(name = "payment_metadata", columnDefinition = "JSON")
+    public String getPaymentMetadata() {
+        serializeMetadata();
+        return paymentMetadata;
+    }
+
+    public void setPaymentMetadata(String paymentMetadata) {
+        this.paymentMetadata = paymentMetadata;
+        paymentMetadataDocument.reset();
+    }
+
+    @Access(AccessType.PROPERTY)
+    @Column(name = "refund_metadata", columnDefinition = "JSON")
+    public String getRefundMetadata() {
+        serializeMetadata();
+        return refundMetadata;
+    }
+
+    public void setRefundMetadata(String refundMetadata) {
+        this.refundMetadata = refundMetadata;
+        refundMetadataDocument.reset();
+    }
+
+    /**
+     * Write changed metadata documents back to their columns; a no-op until the next edit.
+     */
+    @PrePersist
+    @PreUpdate
+    void serializeMetadata() {
+        String serialized;
+        if ((serialized = orderMetadataDocument.serializeIfDirty()) != null) {
+            this.orderMetadata = serialized;
+        }
+        if ((serialized = paymentMetadataDocument.serializeIfDirty()) != null) {
+            this.paymentMetadata = serialized;
+        }
+        if ((serialized = refundMetadataDocument.serializeIfDirty()) != null) {
+            this.refundMetadata = serialized;
+        }
     }
-}
\ No newline at end of file
+}
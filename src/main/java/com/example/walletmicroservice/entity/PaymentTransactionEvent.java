@@ -0,0 +1,49 @@
+package com.example.walletmicroservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Append-only timeline of a payment transaction. Provider payloads and history that used
+ * to accumulate in the metadata columns of payment_transactions are inserted here instead,
+ * so updates to the transaction row itself stay small.
+ */
+@Entity
+@Immutable
+@Table(name = "payment_transaction_events", indexes = {
+        @Index(name = "idx_payment_transaction_events_transaction", columnList = "transaction_id, id")
+})
+@Data
+public class PaymentTransactionEvent {
+
+    @Id
+    // Not a pooled sequence: the timeline pages on id, so ids must grow in insert order on every node
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "transaction_id", nullable = false, length = 100)
+    private String transactionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 30)
+    private EventType eventType;
+
+    @Column(name = "payload", columnDefinition = "JSON")
+    private String payload;
+
+    @Column(name = "created_uid", length = 50)
+    private String createdUid;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    public enum EventType {
+        ORDER_CREATED, PAYMENT_VERIFIED, PAYMENT_CAPTURED, PAYMENT_FAILED,
+        REFUND_APPROVED, REFUND_PROCESSED
+    }
+}
@@ -9,11 +9,14 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payout_transactions")
+@Table(name = "payout_transactions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_payout_transactions_reference_id", columnNames = "reference_id")
+})
 @Data
 public class PayoutTransaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payout_transactions_id")
+    @SequenceGenerator(name = "payout_transactions_id", sequenceName = "payout_transactions_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "payout_id", unique = true, nullable = false)
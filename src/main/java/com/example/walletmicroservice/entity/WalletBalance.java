@@ -0,0 +1,46 @@
+package com.example.walletmicroservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Running balance per customer and ledger type, kept in step with general_ledger by
+ * {@link com.example.walletmicroservice.service.WalletBalanceService}.
+ */
+@Entity
+@Table(name = "wallet_balances", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_wallet_balances_customer_ledger_type", columnNames = {"customer_id", "ledger_type"})
+})
+@Data
+public class WalletBalance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "customer_id", nullable = false, length = 50)
+    private String customerId;
+
+    @Column(name = "ledger_type", nullable = false, length = 20)
+    private String ledgerType;
+
+    @Column(name = "balance", nullable = false, precision = 19, scale = 4)
+    private BigDecimal balance = BigDecimal.ZERO;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version = 0L;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,41 @@
+package com.example.walletmicroservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Wallet balance of a customer summed over all general_ledger rows created before
+ * {@code asOf}. The live balance is this plus the rows created since.
+ */
+@Entity
+@Table(name = "wallet_balance_checkpoints", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_wallet_balance_checkpoints_customer_ledger_type",
+                columnNames = {"customer_id", "ledger_type"})
+})
+@Data
+public class WalletBalanceCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "customer_id", nullable = false, length = 50)
+    private String customerId;
+
+    @Column(name = "ledger_type", nullable = false, length = 20)
+    private String ledgerType;
+
+    @Column(name = "balance", nullable = false, precision = 19, scale = 4)
+    private BigDecimal balance = BigDecimal.ZERO;
+
+    @Column(name = "as_of", nullable = false)
+    private LocalDateTime asOf;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -3,8 +3,10 @@ package com.example.walletmicroservice.exception;
 import com.example.walletmicroservice.dto.ApiResponse;
 import com.razorpay.RazorpayException;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -30,6 +32,15 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error("Validation failed: " + errorMessage, "VALIDATION_ERROR"));
     }
 
+    // @PreAuthorize failures, which would otherwise fall through to the generic 500 handler
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<ApiResponse<Object>> handleAccessDenied(
+            AccessDeniedException ex) {
+
+        return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(ApiResponse.error("Access denied", "ACCESS_DENIED"));
+    }
+
     @ExceptionHandler(HttpClientErrorException.class)
     public ResponseEntity<ApiResponse<Object>> handleHttpClientError(
             HttpClientErrorException ex) {
@@ -46,6 +57,21 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error("External service error: " + ex.getMessage(), "EXTERNAL_SERVICE_ERROR"));
     }
 
+    @ExceptionHandler(RazorpayRateLimitException.class)
+    public ResponseEntity<ApiResponse<Object>> handleRazorpayRateLimit(
+            RazorpayRateLimitException ex) {
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(ex))
+                .body(ApiResponse.error(ex.getMessage(), "RAZORPAY_RATE_LIMITED"));
+    }
+
+    // Whole seconds, rounded up so clients never come back early
+    public static String retryAfterSeconds(RazorpayRateLimitException ex) {
+        long millis = ex.getRetryAfter().toMillis();
+        return String.valueOf(Math.max(1, (millis + 999) / 1000));
+    }
+
     @ExceptionHandler(RazorpayException.class)
     public ResponseEntity<ApiResponse<Object>> handleRazorpayException(
             RazorpayException ex) {
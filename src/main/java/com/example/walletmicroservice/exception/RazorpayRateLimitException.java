@@ -0,0 +1,23 @@
+package com.example.walletmicroservice.exception;
+
+import com.example.walletmicroservice.service.RazorpayRateLimiter.Endpoint;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * A Razorpay call was not made (local limit or bulkhead full past the deadline) or was
+ * answered with 429. Callers may retry after {@link #getRetryAfter()}.
+ */
+@Getter
+public class RazorpayRateLimitException extends RuntimeException {
+
+    private final Endpoint endpoint;
+    private final Duration retryAfter;
+
+    public RazorpayRateLimitException(Endpoint endpoint, Duration retryAfter, String message) {
+        super(message);
+        this.endpoint = endpoint;
+        this.retryAfter = retryAfter;
+    }
+}
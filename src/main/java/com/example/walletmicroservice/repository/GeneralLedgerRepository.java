@@ -8,6 +8,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -40,4 +41,45 @@ public interface GeneralLedgerRepository extends JpaRepository<GeneralLedger, Lo
     BigDecimal sumWalletDebits(@Param("customerId") String customerId,
                                @Param("accountName") String accountName,
                                @Param("entryType") GeneralLedger.EntryType entryType);
+
+    // Net balance (credits - debits) of one ledger type for a customer
+    @Query("SELECT COALESCE(SUM(CASE WHEN gl.entryType = :credit THEN gl.amount ELSE -gl.amount END), 0) " +
+            "FROM GeneralLedger gl " +
+            "WHERE gl.customerId = :customerId " +
+            "AND gl.ledgerType = :ledgerType")
+    BigDecimal sumNetBalance(@Param("customerId") String customerId,
+                             @Param("ledgerType") String ledgerType,
+                             @Param("credit") GeneralLedger.EntryType credit);
+
+    @Query("SELECT DISTINCT gl.customerId FROM GeneralLedger gl WHERE gl.ledgerType = :ledgerType")
+    List<String> findCustomerIdsByLedgerType(@Param("ledgerType") String ledgerType);
+
+    // Net balance of the rows created in [from, to)
+    @Query("SELECT COALESCE(SUM(CASE WHEN gl.entryType = :credit THEN gl.amount ELSE -gl.amount END), 0) " +
+            "FROM GeneralLedger gl " +
+            "WHERE gl.customerId = :customerId " +
+            "AND gl.ledgerType = :ledgerType " +
+            "AND gl.createdAt >= :from AND gl.createdAt < :to")
+    BigDecimal sumNetBalanceBetween(@Param("customerId") String customerId,
+                                    @Param("ledgerType") String ledgerType,
+                                    @Param("credit") GeneralLedger.EntryType credit,
+                                    @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to);
+
+    @Query("SELECT COALESCE(SUM(CASE WHEN gl.entryType = :credit THEN gl.amount ELSE -gl.amount END), 0) " +
+            "FROM GeneralLedger gl " +
+            "WHERE gl.customerId = :customerId " +
+            "AND gl.ledgerType = :ledgerType " +
+            "AND gl.createdAt >= :from")
+    BigDecimal sumNetBalanceSince(@Param("customerId") String customerId,
+                                  @Param("ledgerType") String ledgerType,
+                                  @Param("credit") GeneralLedger.EntryType credit,
+                                  @Param("from") LocalDateTime from);
+
+    @Query("SELECT DISTINCT gl.customerId FROM GeneralLedger gl " +
+            "WHERE gl.ledgerType = :ledgerType " +
+            "AND gl.createdAt >= :from AND gl.createdAt < :to")
+    List<String> findCustomerIdsWithPostingsBetween(@Param("ledgerType") String ledgerType,
+                                                    @Param("from") LocalDateTime from,
+                                                    @Param("to") LocalDateTime to);
 }
\ No newline at end of file
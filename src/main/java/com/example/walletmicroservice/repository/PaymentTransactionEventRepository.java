@@ -0,0 +1,24 @@
+package com.example.walletmicroservice.repository;
+
+import com.example.walletmicroservice.dto.PaymentTransactionEventDTO;
+import com.example.walletmicroservice.entity.PaymentTransactionEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PaymentTransactionEventRepository extends JpaRepository<PaymentTransactionEvent, Long> {
+
+    // Timeline of one transaction in insertion order, continuing after the given event id
+    @Query("SELECT new com.example.walletmicroservice.dto.PaymentTransactionEventDTO(" +
+            "e.id, e.transactionId, e.eventType, e.payload, e.createdUid, e.createdAt) " +
+            "FROM PaymentTransactionEvent e " +
+            "WHERE e.transactionId = :transactionId AND e.id > :afterId ORDER BY e.id")
+    List<PaymentTransactionEventDTO> findTimeline(@Param("transactionId") String transactionId,
+                                                  @Param("afterId") Long afterId,
+                                                  Pageable pageable);
+}
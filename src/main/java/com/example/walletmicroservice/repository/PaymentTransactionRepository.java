@@ -1,5 +1,7 @@
 package com.example.walletmicroservice.repository;
 
+import com.example.walletmicroservice.dto.PaymentMetadataDTO;
+import com.example.walletmicroservice.dto.PaymentTransactionSummaryDTO;
 import com.example.walletmicroservice.entity.PaymentTransaction;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,6 +11,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +21,7 @@ public interface PaymentTransactionRepository extends JpaRepository<PaymentTrans
     // Basic CRUD operations
     Optional<PaymentTransaction> findByTransactionId(String transactionId);
     List<PaymentTransaction> findAllByRazorpayOrderId(String razorpayOrderId);
+    boolean existsByRazorpayOrderId(String razorpayOrderId);
     Page<PaymentTransaction> findByCustomerId(String customerId, Pageable pageable);
 
     List<PaymentTransaction> findAllByCustomerId(String customerId);
@@ -70,6 +74,43 @@ public interface PaymentTransactionRepository extends JpaRepository<PaymentTrans
     // Find recent transactions
     List<PaymentTransaction> findByCustomerIdOrderByCreatedAtDesc(String customerId, Pageable pageable);
 
+    // List-view projection: everything except the metadata JSON columns
+    String SUMMARY_SELECT = "SELECT new com.example.walletmicroservice.dto.PaymentTransactionSummaryDTO(" +
+            "p.id, p.transactionId, p.customerId, p.orderId, p.razorpayOrderId, p.razorpayPaymentId, " +
+            "p.transactionType, p.paymentMethod, p.amount, p.currency, p.status, p.refundStatus, " +
+            "p.refundApprovalStatus, p.refundAmount, p.isPartialRefund, p.refundReason, p.refundRequestedAt, " +
+            "p.createdAt, p.updatedAt) FROM PaymentTransaction p ";
+
+    @Query(value = SUMMARY_SELECT + "WHERE p.customerId = :customerId",
+            countQuery = "SELECT COUNT(p) FROM PaymentTransaction p WHERE p.customerId = :customerId")
+    Page<PaymentTransactionSummaryDTO> findSummariesByCustomerId(@Param("customerId") String customerId,
+                                                                 Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE p.refundApprovalStatus = :status",
+            countQuery = "SELECT COUNT(p) FROM PaymentTransaction p WHERE p.refundApprovalStatus = :status")
+    Page<PaymentTransactionSummaryDTO> findSummariesByRefundApprovalStatus(
+            @Param("status") PaymentTransaction.RefundApprovalStatus status,
+            Pageable pageable);
+
+    // Keyset pagination on (createdAt, id), newest first - served by idx_payment_transactions_customer_created
+    @Query(SUMMARY_SELECT + "WHERE p.customerId = :customerId " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PaymentTransactionSummaryDTO> findFirstKeysetPage(@Param("customerId") String customerId,
+                                                           Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE p.customerId = :customerId " +
+            "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PaymentTransactionSummaryDTO> findKeysetPageAfter(@Param("customerId") String customerId,
+                                                           @Param("createdAt") LocalDateTime createdAt,
+                                                           @Param("id") Long id,
+                                                           Pageable pageable);
+
+    @Query("SELECT new com.example.walletmicroservice.dto.PaymentMetadataDTO(" +
+            "p.transactionId, p.orderMetadata, p.paymentMetadata, p.refundMetadata) " +
+            "FROM PaymentTransaction p WHERE p.transactionId = :transactionId")
+    Optional<PaymentMetadataDTO> findMetadataByTransactionId(@Param("transactionId") String transactionId);
+
     // Sum of amounts for a customer (for wallet balance calculation)
     @Query("SELECT COALESCE(SUM(p.amount), 0) FROM PaymentTransaction p WHERE " +
             "p.customerId = :customerId AND " +
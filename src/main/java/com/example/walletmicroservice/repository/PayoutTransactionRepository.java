@@ -1,9 +1,12 @@
 package com.example.walletmicroservice.repository;
 
+import com.example.walletmicroservice.dto.PayoutSummaryDTO;
 import com.example.walletmicroservice.entity.PayoutTransaction;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -12,5 +15,14 @@ import java.util.Optional;
 public interface PayoutTransactionRepository extends JpaRepository<PayoutTransaction, Long> {
     Optional<PayoutTransaction> findByPayoutId(String payoutId);
     Optional<PayoutTransaction> findByRazorpayPayoutId(String razorpayPayoutId);
+    Optional<PayoutTransaction> findByReferenceId(String referenceId);
     Page<PayoutTransaction> findByCustomerId(String customerId, Pageable pageable);
+
+    // List-view projection without the metadata JSON column
+    @Query(value = "SELECT new com.example.walletmicroservice.dto.PayoutSummaryDTO(" +
+            "p.id, p.payoutId, p.customerId, p.fundAccountId, p.amount, p.currency, p.mode, p.purpose, " +
+            "p.referenceId, p.razorpayPayoutId, p.status, p.utrNumber, p.failureReason, p.fees, p.tax, " +
+            "p.createdAt, p.processedAt) FROM PayoutTransaction p WHERE p.customerId = :customerId",
+            countQuery = "SELECT COUNT(p) FROM PayoutTransaction p WHERE p.customerId = :customerId")
+    Page<PayoutSummaryDTO> findSummariesByCustomerId(@Param("customerId") String customerId, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.example.walletmicroservice.repository;
+
+import com.example.walletmicroservice.entity.WalletBalanceCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface WalletBalanceCheckpointRepository extends JpaRepository<WalletBalanceCheckpoint, Long> {
+
+    Optional<WalletBalanceCheckpoint> findByCustomerIdAndLedgerType(String customerId, String ledgerType);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM WalletBalanceCheckpoint c WHERE c.customerId = :customerId AND c.ledgerType = :ledgerType")
+    Optional<WalletBalanceCheckpoint> findForUpdate(@Param("customerId") String customerId,
+                                                    @Param("ledgerType") String ledgerType);
+
+    @Query("SELECT MAX(c.asOf) FROM WalletBalanceCheckpoint c WHERE c.ledgerType = :ledgerType")
+    Optional<LocalDateTime> findLatestAsOf(@Param("ledgerType") String ledgerType);
+
+    // Create an empty checkpoint if the customer has none yet
+    @Modifying
+    @Query(value = "INSERT INTO wallet_balance_checkpoints (customer_id, ledger_type, balance, as_of, updated_at) " +
+            "VALUES (:customerId, :ledgerType, 0, :asOf, NOW(6)) " +
+            "ON DUPLICATE KEY UPDATE id = id",
+            nativeQuery = true)
+    int createIfAbsent(@Param("customerId") String customerId,
+                       @Param("ledgerType") String ledgerType,
+                       @Param("asOf") LocalDateTime asOf);
+}
@@ -0,0 +1,39 @@
+package com.example.walletmicroservice.repository;
+
+import com.example.walletmicroservice.entity.WalletBalance;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WalletBalanceRepository extends JpaRepository<WalletBalance, Long> {
+
+    Optional<WalletBalance> findByCustomerIdAndLedgerType(String customerId, String ledgerType);
+
+    @Query("SELECT b.customerId FROM WalletBalance b WHERE b.ledgerType = :ledgerType")
+    List<String> findCustomerIdsByLedgerType(@Param("ledgerType") String ledgerType);
+
+    // Row lock on the balance; held until the surrounding transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM WalletBalance b WHERE b.customerId = :customerId AND b.ledgerType = :ledgerType")
+    Optional<WalletBalance> findForUpdate(@Param("customerId") String customerId,
+                                          @Param("ledgerType") String ledgerType);
+
+    // Atomic create-or-increment, so concurrent postings never lose an update
+    @Modifying
+    @Query(value = "INSERT INTO wallet_balances (customer_id, ledger_type, balance, version, created_at, updated_at) " +
+            "VALUES (:customerId, :ledgerType, :delta, 0, NOW(6), NOW(6)) " +
+            "ON DUPLICATE KEY UPDATE balance = balance + :delta, version = version + 1, updated_at = NOW(6)",
+            nativeQuery = true)
+    int addToBalance(@Param("customerId") String customerId,
+                     @Param("ledgerType") String ledgerType,
+                     @Param("delta") BigDecimal delta);
+}
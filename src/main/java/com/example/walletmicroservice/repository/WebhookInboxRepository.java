@@ -0,0 +1,43 @@
+package com.example.walletmicroservice.repository;
+
+import com.example.walletmicroservice.entity.WebhookInbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface WebhookInboxRepository extends JpaRepository<WebhookInbox, Long> {
+
+    // Ids of entries in the given status that are due, oldest first
+    @Query("SELECT w.id FROM WebhookInbox w " +
+            "WHERE w.status = :status AND w.nextAttemptAt <= :now ORDER BY w.id")
+    List<Long> findReadyIds(@Param("status") WebhookInbox.Status status,
+                            @Param("now") LocalDateTime now,
+                            Pageable pageable);
+
+    // Claim an entry for one worker (from -> to); returns 0 if another worker (or node) got it first
+    @Modifying
+    @Query("UPDATE WebhookInbox w SET w.status = :to, w.attempts = w.attempts + 1, w.updatedAt = :now " +
+            "WHERE w.id = :id AND w.status = :from")
+    int claim(@Param("id") Long id,
+              @Param("from") WebhookInbox.Status from,
+              @Param("to") WebhookInbox.Status to,
+              @Param("now") LocalDateTime now);
+
+    // Return entries abandoned by a crashed worker (from -> to, untouched since cutoff) to the queue
+    @Modifying
+    @Query("UPDATE WebhookInbox w SET w.status = :to, w.updatedAt = :now " +
+            "WHERE w.status = :from AND w.updatedAt < :cutoff")
+    int releaseStuck(@Param("from") WebhookInbox.Status from,
+                     @Param("to") WebhookInbox.Status to,
+                     @Param("cutoff") LocalDateTime cutoff,
+                     @Param("now") LocalDateTime now);
+
+    long countByStatus(WebhookInbox.Status status);
+}
@@ -0,0 +1,73 @@
+package com.example.walletmicroservice.service;
+
+import com.example.walletmicroservice.entity.ChartOfAccounts;
+import com.example.walletmicroservice.repository.ChartOfAccountsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable in-memory snapshot of the chart of accounts, so ledger postings do not
+ * read COA rows from the database. The snapshot is replaced as a whole on refresh.
+ * The entities are mutable, so the snapshot holds its own detached copies and every
+ * lookup hands out a fresh copy that callers may change freely.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChartOfAccountsRegistry {
+
+    private final ChartOfAccountsRepository chartOfAccountsRepository;
+
+    private volatile Map<String, ChartOfAccounts> accounts = Map.of();
+
+    // Runs after CommandLineRunners, i.e. after the seeder
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    public synchronized void refresh() {
+        accounts = Map.copyOf(chartOfAccountsRepository.findAll().stream()
+                .map(ChartOfAccountsRegistry::copyOf)
+                .collect(Collectors.toMap(ChartOfAccounts::getAccountId, Function.identity())));
+        log.info("Chart of accounts registry loaded: {} accounts", accounts.size());
+    }
+
+    public ChartOfAccounts getAccount(String accountId) {
+        ChartOfAccounts account = accounts.get(accountId);
+        if (account == null) {
+            // Not loaded yet or added after startup - reload once before giving up
+            refresh();
+            account = accounts.get(accountId);
+        }
+        if (account == null) {
+            throw new RuntimeException("Account " + accountId + " not found");
+        }
+        return copyOf(account);
+    }
+
+    public int size() {
+        return accounts.size();
+    }
+
+    private static ChartOfAccounts copyOf(ChartOfAccounts source) {
+        ChartOfAccounts copy = new ChartOfAccounts();
+        copy.setAccountId(source.getAccountId());
+        copy.setAccountName(source.getAccountName());
+        copy.setAccountType(source.getAccountType());
+        copy.setNormalBalance(source.getNormalBalance());
+        copy.setLedgerType(source.getLedgerType());
+        copy.setDescription(source.getDescription());
+        copy.setIsActive(source.getIsActive());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        return copy;
+    }
+}
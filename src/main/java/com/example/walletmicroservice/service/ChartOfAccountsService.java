@@ -14,6 +14,7 @@ import java.util.List;
 public class ChartOfAccountsService {
 
     private final ChartOfAccountsRepository repo;
+    private final ChartOfAccountsRegistry registry;
 
     public List<ChartOfAccounts> getAll() {
         return repo.findAll();
@@ -33,6 +34,16 @@ public class ChartOfAccountsService {
         if (req.getIsActive() != null)
             coa.setIsActive(req.getIsActive());
 
-        return repo.save(coa);
+        ChartOfAccounts saved = repo.save(coa);
+        registry.refresh();
+        return saved;
+    }
+
+    /**
+     * Reload the in-memory registry on this node, e.g. after a COA change made on another node.
+     */
+    public int refreshRegistry() {
+        registry.refresh();
+        return registry.size();
     }
 }
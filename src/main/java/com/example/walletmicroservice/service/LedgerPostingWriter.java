@@ -0,0 +1,264 @@
+package com.example.walletmicroservice.service;
+
+import com.example.walletmicroservice.entity.GeneralLedger;
+import com.example.walletmicroservice.repository.GeneralLedgerRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-commit writer for ledger postings. Journal entries posted outside a transaction
+ * are queued and committed by a single writer thread in micro-batches, bounded by
+ * {@code max-batch-size} entries and {@code max-latency-ms} of waiting. Entries posted
+ * inside a transaction are written inline so they commit (or roll back) with the caller.
+ *
+ * The returned future completes once the entry is committed. Do not join it from inside
+ * a transaction - an inline posting only completes after that transaction commits.
+ *
+ * On shutdown the writer commits what is queued and stops; entries still queued after it
+ * has stopped, and entries posted from then on, are committed on the posting thread, so
+ * every returned future completes.
+ */
+@Component
+@Slf4j
+public class LedgerPostingWriter {
+
+    private final GeneralLedgerRepository generalLedgerRepository;
+    private final WalletBalanceService walletBalanceService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int maxBatchSize;
+    private final long maxLatencyNanos;
+
+    private final BlockingQueue<PendingEntry> queue;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    private final Counter batchedEntries;
+    private final Counter inlineEntries;
+    private final Counter failedEntries;
+    private final DistributionSummary batchSize;
+    private final Timer commitTimer;
+    private final Timer durableWait;
+
+    public LedgerPostingWriter(GeneralLedgerRepository generalLedgerRepository,
+                               WalletBalanceService walletBalanceService,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.ledger.posting.max-batch-size:100}") int maxBatchSize,
+                               @Value("${app.ledger.posting.max-latency-ms:5}") long maxLatencyMs,
+                               @Value("${app.ledger.posting.queue-capacity:10000}") int queueCapacity) {
+        this.generalLedgerRepository = generalLedgerRepository;
+        this.walletBalanceService = walletBalanceService;
+        this.transactionTemplate = transactionTemplate;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMs);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.batchedEntries = Counter.builder("ledger.posting.entries").tag("mode", "batched")
+                .description("Journal entries committed").register(meterRegistry);
+        this.inlineEntries = Counter.builder("ledger.posting.entries").tag("mode", "inline")
+                .description("Journal entries committed").register(meterRegistry);
+        this.failedEntries = Counter.builder("ledger.posting.failed")
+                .description("Journal entries that could not be committed").register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("ledger.posting.batch.size")
+                .description("Journal entries per group commit").register(meterRegistry);
+        this.commitTimer = Timer.builder("ledger.posting.commit")
+                .description("Time to write and commit one batch").register(meterRegistry);
+        this.durableWait = Timer.builder("ledger.posting.wait")
+                .description("Time from posting an entry until it is committed").register(meterRegistry);
+        Gauge.builder("ledger.posting.queue.size", queue, BlockingQueue::size)
+                .description("Journal entries waiting for the writer").register(meterRegistry);
+
+        this.writerThread = new Thread(this::runWriter, "ledger-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * A balanced set of ledger lines that must be committed together.
+     */
+    public record JournalEntry(String reference, List<GeneralLedger> lines) {
+
+        public JournalEntry {
+            lines = List.copyOf(lines);
+            BigDecimal debits = BigDecimal.ZERO;
+            BigDecimal credits = BigDecimal.ZERO;
+            for (GeneralLedger line : lines) {
+                if (line.getEntryType() == GeneralLedger.EntryType.DEBIT) {
+                    debits = debits.add(line.getAmount());
+                } else {
+                    credits = credits.add(line.getAmount());
+                }
+            }
+            if (debits.compareTo(credits) != 0) {
+                throw new IllegalArgumentException("Unbalanced journal entry " + reference
+                        + ": debits=" + debits + ", credits=" + credits);
+            }
+        }
+    }
+
+    private record PendingEntry(JournalEntry entry, CompletableFuture<Void> future, long postedAt) {
+    }
+
+    public CompletableFuture<Void> post(JournalEntry entry) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return writeInCurrentTransaction(entry);
+        }
+
+        PendingEntry pending = new PendingEntry(entry, new CompletableFuture<>(), System.nanoTime());
+        if (!running) {
+            commit(List.of(pending));
+            return pending.future();
+        }
+        try {
+            // Blocks when the writer falls behind, pushing back on callers
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.future().completeExceptionally(e);
+            return pending.future();
+        }
+        // Shut down between the check above and the put: unless the writer or shutdown()
+        // took the entry first, nobody is left to commit it
+        if (!running && queue.remove(pending)) {
+            commit(List.of(pending));
+        }
+        return pending.future();
+    }
+
+    private CompletableFuture<Void> writeInCurrentTransaction(JournalEntry entry) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        write(entry.lines());
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    inlineEntries.increment();
+                    future.complete(null);
+                } else {
+                    future.completeExceptionally(
+                            new IllegalStateException("Ledger posting " + entry.reference() + " was rolled back"));
+                }
+            }
+        });
+        return future;
+    }
+
+    // ============ WRITER THREAD ============
+
+    private void runWriter() {
+        List<PendingEntry> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingEntry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch, first.postedAt() + maxLatencyNanos);
+                commit(batch);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+            } catch (RuntimeException e) {
+                log.error("Ledger writer failed to commit a batch", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void fillBatch(List<PendingEntry> batch, long deadline) throws InterruptedException {
+        while (batch.size() < maxBatchSize) {
+            if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            PendingEntry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<PendingEntry> batch) {
+        List<GeneralLedger> lines = new ArrayList<>(batch.size() * 2);
+        for (PendingEntry pending : batch) {
+            lines.addAll(pending.entry().lines());
+        }
+
+        try {
+            commitTimer.record(() ->
+                    transactionTemplate.executeWithoutResult(status -> write(lines)));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                fail(batch.get(0), e);
+                return;
+            }
+            // Isolate the bad entry so the rest of the batch still commits
+            log.warn("Ledger batch of {} entries failed, retrying one by one: {}", batch.size(), e.getMessage());
+            for (PendingEntry pending : batch) {
+                pending.entry().lines().forEach(line -> line.setId(null));
+                commit(List.of(pending));
+            }
+            return;
+        }
+
+        batchSize.record(batch.size());
+        batchedEntries.increment(batch.size());
+        long now = System.nanoTime();
+        for (PendingEntry pending : batch) {
+            durableWait.record(now - pending.postedAt(), TimeUnit.NANOSECONDS);
+            pending.future().complete(null);
+        }
+    }
+
+    // Ledger rows and the wallet balances they move always commit together
+    private void write(List<GeneralLedger> lines) {
+        generalLedgerRepository.saveAll(lines);
+        walletBalanceService.applyPostings(lines);
+    }
+
+    private void fail(PendingEntry pending, RuntimeException e) {
+        failedEntries.increment();
+        log.error("Failed to commit ledger posting {}", pending.entry().reference(), e);
+        pending.future().completeExceptionally(e);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+
+        // Entries that raced the writer's last look at the queue
+        List<PendingEntry> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        for (PendingEntry pending : leftover) {
+            commit(List.of(pending));
+        }
+    }
+}
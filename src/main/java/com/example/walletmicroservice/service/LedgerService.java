@@ -2,24 +2,24 @@ package com.example.walletmicroservice.service;
 
 import com.example.walletmicroservice.entity.ChartOfAccounts;
 import com.example.walletmicroservice.entity.GeneralLedger;
-import com.example.walletmicroservice.repository.ChartOfAccountsRepository;
-import com.example.walletmicroservice.repository.GeneralLedgerRepository;
+import com.example.walletmicroservice.service.LedgerPostingWriter.JournalEntry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class LedgerService {
 
-    private final GeneralLedgerRepository generalLedgerRepository;
-    private final ChartOfAccountsRepository chartOfAccountsRepository;
+    private final LedgerPostingWriter ledgerPostingWriter;
+    private final ChartOfAccountsRegistry chartOfAccountsRegistry;
 
     // ============ HELPER METHOD ============
 
@@ -74,16 +74,13 @@ public class LedgerService {
      * 1001 (Asset) DEBIT = Bank balance increases
      * 1002 (Clearing) CREDIT = Clear pending amount
      */
-    @Transactional
-    public void recordPaymentSuccess(
+    public CompletableFuture<Void> recordPaymentSuccess(
             String paymentTransactionId, String transactionId,
             String customerId, String orderId, BigDecimal amount, String userId) {
 
-        ChartOfAccounts companyBank = chartOfAccountsRepository.findById("1001")
-                .orElseThrow(() -> new RuntimeException("Account 1001 not found"));
+        ChartOfAccounts companyBank = chartOfAccountsRegistry.getAccount("1001");
 
-        ChartOfAccounts clearingAccount = chartOfAccountsRepository.findById("1002")
-                .orElseThrow(() -> new RuntimeException("Account 1002 not found"));
+        ChartOfAccounts clearingAccount = chartOfAccountsRegistry.getAccount("1002");
 
         // Debit: Bank balance increases
         GeneralLedger debitEntry = createLedgerEntry(
@@ -95,10 +92,11 @@ public class LedgerService {
                 clearingAccount, paymentTransactionId, transactionId,
                 customerId, orderId, amount, GeneralLedger.EntryType.CREDIT, userId);
 
-        generalLedgerRepository.save(debitEntry);
-        generalLedgerRepository.save(creditEntry);
+        CompletableFuture<Void> posted = ledgerPostingWriter.post(
+                new JournalEntry(transactionId, List.of(debitEntry, creditEntry)));
 
         log.info("Recorded Payment Success: Transaction={}, Amount={}", transactionId, amount);
+        return posted;
     }
 
     /**
@@ -106,16 +104,13 @@ public class LedgerService {
      * 1003 (Income) DEBIT = Reduce revenue
      * 1004 (Clearing) CREDIT = Move to pending
      */
-    @Transactional
-    public void recordRefundApproved(
+    public CompletableFuture<Void> recordRefundApproved(
             String paymentTransactionId, String transactionId,
             String customerId, String orderId, BigDecimal amount, String userId) {
 
-        ChartOfAccounts salesRevenue = chartOfAccountsRepository.findById("1003")
-                .orElseThrow(() -> new RuntimeException("Account 1003 not found"));
+        ChartOfAccounts salesRevenue = chartOfAccountsRegistry.getAccount("1003");
 
-        ChartOfAccounts clearingAccount = chartOfAccountsRepository.findById("1004")
-                .orElseThrow(() -> new RuntimeException("Account 1004 not found"));
+        ChartOfAccounts clearingAccount = chartOfAccountsRegistry.getAccount("1004");
 
         // Debit: Reduce revenue
         GeneralLedger debitEntry = createLedgerEntry(
@@ -127,10 +122,11 @@ public class LedgerService {
                 clearingAccount, paymentTransactionId, transactionId,
                 customerId, orderId, amount, GeneralLedger.EntryType.CREDIT, userId);
 
-        generalLedgerRepository.save(debitEntry);
-        generalLedgerRepository.save(creditEntry);
+        CompletableFuture<Void> posted = ledgerPostingWriter.post(
+                new JournalEntry(transactionId, List.of(debitEntry, creditEntry)));
 
         log.info("Recorded Refund Approved: Transaction={}, Amount={}", transactionId, amount);
+        return posted;
     }
 
     /**
@@ -138,16 +134,13 @@ public class LedgerService {
      * 1005 (Clearing) DEBIT = Clear pending
      * 1006 (Asset) CREDIT = Bank balance decreases
      */
-    @Transactional
-    public void recordRefundProcessedSuccess(
+    public CompletableFuture<Void> recordRefundProcessedSuccess(
             String paymentTransactionId, String transactionId,
             String customerId, String orderId, BigDecimal amount, String userId) {
 
-        ChartOfAccounts clearingAccount = chartOfAccountsRepository.findById("1005")
-                .orElseThrow(() -> new RuntimeException("Account 1005 not found"));
+        ChartOfAccounts clearingAccount = chartOfAccountsRegistry.getAccount("1005");
 
-        ChartOfAccounts companyBank = chartOfAccountsRepository.findById("1006")
-                .orElseThrow(() -> new RuntimeException("Account 1006 not found"));
+        ChartOfAccounts companyBank = chartOfAccountsRegistry.getAccount("1006");
 
         // Debit: Clear pending
         GeneralLedger debitEntry = createLedgerEntry(
@@ -159,10 +152,11 @@ public class LedgerService {
                 companyBank, paymentTransactionId, transactionId,
                 customerId, orderId, amount, GeneralLedger.EntryType.CREDIT, userId);
 
-        generalLedgerRepository.save(debitEntry);
-        generalLedgerRepository.save(creditEntry);
+        CompletableFuture<Void> posted = ledgerPostingWriter.post(
+                new JournalEntry(transactionId, List.of(debitEntry, creditEntry)));
 
         log.info("Recorded Refund Processed Success: Transaction={}, Amount={}", transactionId, amount);
+        return posted;
     }
 
     /**
@@ -170,16 +164,13 @@ public class LedgerService {
      * 1007 (Clearing) DEBIT = Clear pending
      * 1008 (Income) CREDIT = Increase in revenue
      */
-    @Transactional
-    public void recordRefundFailed(
+    public CompletableFuture<Void> recordRefundFailed(
             String paymentTransactionId, String transactionId,
             String customerId, String orderId, BigDecimal amount, String userId) {
 
-        ChartOfAccounts clearingAccount = chartOfAccountsRepository.findById("1007")
-                .orElseThrow(() -> new RuntimeException("Account 1007 not found"));
+        ChartOfAccounts clearingAccount = chartOfAccountsRegistry.getAccount("1007");
 
-        ChartOfAccounts salesRevenue = chartOfAccountsRepository.findById("1008")
-                .orElseThrow(() -> new RuntimeException("Account 1008 not found"));
+        ChartOfAccounts salesRevenue = chartOfAccountsRegistry.getAccount("1008");
 
         // Debit: Clear pending
         GeneralLedger debitEntry = createLedgerEntry(
@@ -191,10 +182,11 @@ public class LedgerService {
                 salesRevenue, paymentTransactionId, transactionId,
                 customerId, orderId, amount, GeneralLedger.EntryType.CREDIT, userId);
 
-        generalLedgerRepository.save(debitEntry);
-        generalLedgerRepository.save(creditEntry);
+        CompletableFuture<Void> posted = ledgerPostingWriter.post(
+                new JournalEntry(transactionId, List.of(debitEntry, creditEntry)));
 
         log.info("Recorded Refund Failed: Transaction={}, Amount={}", transactionId, amount);
+        return posted;
     }
 
     /**
@@ -203,16 +195,13 @@ public class LedgerService {
      * 1010 (Liability) CREDIT = Create wallet liability
      * for payout we have taking ref id, fund account id, customer id, contact id, amount, user id
      */
-    @Transactional
-    public void recordWalletPayout(
+    public CompletableFuture<Void> recordWalletPayout(
             String paymentTransactionId, String transactionId,
             String customerId, String orderId, BigDecimal amount, String userId) {
 
-        ChartOfAccounts payoutExpense = chartOfAccountsRepository.findById("1009")
-                .orElseThrow(() -> new RuntimeException("Account 1009 not found"));
+        ChartOfAccounts payoutExpense = chartOfAccountsRegistry.getAccount("1009");
 
-        ChartOfAccounts walletLiability = chartOfAccountsRepository.findById("1010")
-                .orElseThrow(() -> new RuntimeException("Account 1010 not found"));
+        ChartOfAccounts walletLiability = chartOfAccountsRegistry.getAccount("1010");
 
         // Debit: Increase expense
         GeneralLedger debitEntry = createLedgerEntry(
@@ -224,10 +213,11 @@ public class LedgerService {
                 walletLiability, paymentTransactionId, transactionId,
                 customerId, orderId, amount, GeneralLedger.EntryType.CREDIT, userId);
 
-        generalLedgerRepository.save(debitEntry);
-        generalLedgerRepository.save(creditEntry);
+        CompletableFuture<Void> posted = ledgerPostingWriter.post(
+                new JournalEntry(transactionId, List.of(debitEntry, creditEntry)));
 
         log.info("Recorded Wallet Payout: Transaction={}, Amount={}", transactionId, amount);
+        return posted;
     }
 
     /**
@@ -235,16 +225,13 @@ public class LedgerService {
      * 1011 (Liability) DEBIT = Reduce wallet liability
      * 1012 (Clearing) CREDIT = Move to pending
      */
-    @Transactional
-    public void recordWithdrawalApproved(
+    public CompletableFuture<Void> recordWithdrawalApproved(
             String paymentTransactionId, String transactionId,
             String customerId, String orderId, BigDecimal amount, String userId) {
 
-        ChartOfAccounts walletLiability = chartOfAccountsRepository.findById("1011")
-                .orElseThrow(() -> new RuntimeException("Account 1011 not found"));
+        ChartOfAccounts walletLiability = chartOfAccountsRegistry.getAccount("1011");
 
-        ChartOfAccounts clearingAccount = chartOfAccountsRepository.findById("1012")
-                .orElseThrow(() -> new RuntimeException("Account 1012 not found"));
+        ChartOfAccounts clearingAccount = chartOfAccountsRegistry.getAccount("1012");
 
         // Debit: Reduce wallet liability
         GeneralLedger debitEntry = createLedgerEntry(
@@ -256,10 +243,11 @@ public class LedgerService {
                 clearingAccount, paymentTransactionId, transactionId,
                 customerId, orderId, amount, GeneralLedger.EntryType.CREDIT, userId);
 
-        generalLedgerRepository.save(debitEntry);
-        generalLedgerRepository.save(creditEntry);
+        CompletableFuture<Void> posted = ledgerPostingWriter.post(
+                new JournalEntry(transactionId, List.of(debitEntry, creditEntry)));
 
         log.info("Recorded Withdrawal Approved: Transaction={}, Amount={}", transactionId, amount);
+        return posted;
     }
 
     /**
@@ -267,16 +255,13 @@ public class LedgerService {
      * 1013 (Clearing) DEBIT = Clear pending
      * 1014 (Asset) CREDIT = Bank balance decreases
      */
-    @Transactional
-    public void recordWithdrawalProcessedSuccess(
+    public CompletableFuture<Void> recordWithdrawalProcessedSuccess(
             String paymentTransactionId, String transactionId,
             String customerId, String orderId, BigDecimal amount, String userId) {
 
-        ChartOfAccounts clearingAccount = chartOfAccountsRepository.findById("1013")
-                .orElseThrow(() -> new RuntimeException("Account 1013 not found"));
+        ChartOfAccounts clearingAccount = chartOfAccountsRegistry.getAccount("1013");
 
-        ChartOfAccounts companyBank = chartOfAccountsRepository.findById("1014")
-                .orElseThrow(() -> new RuntimeException("Account 1014 not found"));
+        ChartOfAccounts companyBank = chartOfAccountsRegistry.getAccount("1014");
 
         // Debit: Clear pending
         GeneralLedger debitEntry = createLedgerEntry(
@@ -288,10 +273,11 @@ public class LedgerService {
                 companyBank, paymentTransactionId, transactionId,
                 customerId, orderId, amount, GeneralLedger.EntryType.CREDIT, userId);
 
-        generalLedgerRepository.save(debitEntry);
-        generalLedgerRepository.save(creditEntry);
+        CompletableFuture<Void> posted = ledgerPostingWriter.post(
+                new JournalEntry(transactionId, List.of(debitEntry, creditEntry)));
 
         log.info("Recorded Withdrawal Processed Success: Transaction={}, Amount={}", transactionId, amount);
+        return posted;
     }
 
     /**
@@ -299,16 +285,13 @@ public class LedgerService {
      * 1015 (Clearing) DEBIT = Clear pending
      * 1016 (Liability) CREDIT = Return to wallet liability
      */
-    @Transactional
-    public void recordWithdrawalFailed(
+    public CompletableFuture<Void> recordWithdrawalFailed(
             String paymentTransactionId, String transactionId,
             String customerId, String orderId, BigDecimal amount, String userId) {
 
-        ChartOfAccounts clearingAccount = chartOfAccountsRepository.findById("1015")
-                .orElseThrow(() -> new RuntimeException("Account 1015 not found"));
+        ChartOfAccounts clearingAccount = chartOfAccountsRegistry.getAccount("1015");
 
-        ChartOfAccounts walletLiability = chartOfAccountsRepository.findById("1016")
-                .orElseThrow(() -> new RuntimeException("Account 1016 not found"));
+        ChartOfAccounts walletLiability = chartOfAccountsRegistry.getAccount("1016");
 
         // Debit: Clear pending
         GeneralLedger debitEntry = createLedgerEntry(
@@ -320,9 +303,10 @@ public class LedgerService {
                 walletLiability, paymentTransactionId, transactionId,
                 customerId, orderId, amount, GeneralLedger.EntryType.CREDIT, userId);
 
-        generalLedgerRepository.save(debitEntry);
-        generalLedgerRepository.save(creditEntry);
+        CompletableFuture<Void> posted = ledgerPostingWriter.post(
+                new JournalEntry(transactionId, List.of(debitEntry, creditEntry)));
 
         log.info("Recorded Withdrawal Failed: Transaction={}, Amount={}", transactionId, amount);
+        return posted;
     }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.example.walletmicroservice.service;
+
+import com.example.walletmicroservice.config.RazorpayCredentials;
+import com.razorpay.Order;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Finds Razorpay orders created by {@link RazorpayService#createOrder} whose local insert
+ * failed (the Razorpay call and the insert are no longer one transaction) and persists them.
+ * <p>
+ * The job runs on every node rather than on an elected one. Each run lists the orders of the
+ * lookback window (a page per 100 orders, through the node's own ORDERS rate limit) and does
+ * one indexed lookup on razorpay_order_id per order, so the repeated work is small. Two nodes
+ * repairing the same order is harmless: the unique transaction_id rejects the second insert,
+ * which {@link RazorpayService#reconcileOrder} treats as already reconciled.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderReconciliationService {
+
+    private static final int PAGE_SIZE = 100; // Razorpay maximum
+
+    private final RazorpayCredentials razorpayCredentials;
+    private final RazorpayService razorpayService;
+    private final RazorpayRateLimiter rateLimiter;
+
+    @Value("${app.orders.reconciliation.lookback-minutes:60}")
+    private long lookbackMinutes;
+
+    @Value("${app.orders.reconciliation.settle-seconds:60}")
+    private long settleSeconds;
+
+    @Scheduled(fixedDelayString = "${app.orders.reconciliation.interval-ms:300000}",
+            initialDelayString = "${app.orders.reconciliation.interval-ms:300000}")
+    public void reconcileRecentOrders() {
+        Instant now = Instant.now();
+        long from = now.minusSeconds(lookbackMinutes * 60).getEpochSecond();
+        // Skip very recent orders whose insert may still be in flight
+        long to = now.minusSeconds(settleSeconds).getEpochSecond();
+
+        int reconciled = 0;
+        try {
+            for (int skip = 0; ; skip += PAGE_SIZE) {
+                JSONObject query = new JSONObject();
+                query.put("from", from);
+                query.put("to", to);
+                query.put("count", PAGE_SIZE);
+                query.put("skip", skip);
+
+                List<Order> orders = rateLimiter.execute(RazorpayRateLimiter.Endpoint.ORDERS,
+                        () -> razorpayCredentials.client().orders.fetchAll(query));
+                for (Order order : orders) {
+                    if (razorpayService.reconcileOrder(order)) {
+                        reconciled++;
+                    }
+                }
+                if (orders.size() < PAGE_SIZE) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Order reconciliation failed", e);
+        }
+
+        if (reconciled > 0) {
+            log.warn("Order reconciliation persisted {} order(s) missing locally", reconciled);
+        }
+    }
+}
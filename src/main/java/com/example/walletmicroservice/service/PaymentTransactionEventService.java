@@ -0,0 +1,43 @@
+package com.example.walletmicroservice.service;
+
+import com.example.walletmicroservice.dto.PaymentTransactionEventDTO;
+import com.example.walletmicroservice.entity.PaymentTransactionEvent;
+import com.example.walletmicroservice.repository.PaymentTransactionEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONObject;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+import static com.example.walletmicroservice.util.SecurityUtil.getCurrentUserId;
+
+/**
+ * Appends to and reads the payment_transaction_events timeline. Events are written in the
+ * caller's transaction when there is one, so they commit together with the row update.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentTransactionEventService {
+
+    private final PaymentTransactionEventRepository eventRepository;
+
+    public void record(String transactionId, PaymentTransactionEvent.EventType eventType, JSONObject payload) {
+        PaymentTransactionEvent event = new PaymentTransactionEvent();
+        event.setTransactionId(transactionId);
+        event.setEventType(eventType);
+        event.setPayload(payload != null ? payload.toString() : null);
+        event.setCreatedUid(getCurrentUserId());
+        eventRepository.save(event);
+    }
+
+    /**
+     * Up to {@code limit} events of a transaction, oldest first, after event {@code afterId}
+     * (0 for the start of the timeline).
+     */
+    public List<PaymentTransactionEventDTO> getTimeline(String transactionId, long afterId, int limit) {
+        return eventRepository.findTimeline(transactionId, afterId, PageRequest.of(0, limit));
+    }
+}
@@ -2,27 +2,35 @@ package com.example.walletmicroservice.service;
 
 import com.example.walletmicroservice.dto.*;
 import com.example.walletmicroservice.entity.PayoutTransaction;
+import com.example.walletmicroservice.exception.RazorpayRateLimitException;
 import com.example.walletmicroservice.repository.PayoutTransactionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.transaction.Transactional;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.awt.print.Pageable;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import static com.example.walletmicroservice.util.SecurityUtil.getCurrentUserId;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class PayoutService {
 
@@ -30,58 +38,86 @@ public class PayoutService {
     private String razorpayPayoutAc;
 
     private final RazorpayHttpClientService razorpayHttpClient;
+    private final RazorpayAsyncClient razorpayAsyncClient;
     private final PayoutTransactionRepository payoutRepository;
     private final LedgerService ledgerService;
+    private final WalletBalanceService walletBalanceService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor payoutUpdateExecutor;
+
+    public PayoutService(RazorpayHttpClientService razorpayHttpClient,
+                         RazorpayAsyncClient razorpayAsyncClient,
+                         PayoutTransactionRepository payoutRepository,
+                         LedgerService ledgerService,
+                         WalletBalanceService walletBalanceService,
+                         ObjectMapper objectMapper,
+                         TransactionTemplate transactionTemplate,
+                         @Qualifier("payoutUpdateExecutor") Executor payoutUpdateExecutor) {
+        this.razorpayHttpClient = razorpayHttpClient;
+        this.razorpayAsyncClient = razorpayAsyncClient;
+        this.payoutRepository = payoutRepository;
+        this.ledgerService = ledgerService;
+        this.walletBalanceService = walletBalanceService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.payoutUpdateExecutor = payoutUpdateExecutor;
+    }
 
-    // 1. Create or Get Contact
-    @Transactional
-    public JSONObject createOrGetContact(ContactRequestDTO request) {
-        JSONObject contactRequest = new JSONObject();
-        contactRequest.put("name", request.getName());
-        contactRequest.put("email", request.getEmail());
-        contactRequest.put("contact", request.getMobile());
-        contactRequest.put("type", request.getType());
-        if (request.getReferenceId() != null) {
-            contactRequest.put("reference_id", request.getReferenceId());
+    private static BigDecimal fromPaise(Long paise) {
+        return BigDecimal.valueOf(paise != null ? paise : 0L, 2);
+    }
+
+    private String toJson(Map<String, Object> metadata) {
+        try {
+            return objectMapper.writeValueAsString(metadata);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize payout metadata", e);
         }
-        return razorpayHttpClient.createContact(contactRequest);
     }
 
-    // 2. Create Fund Account
-    @Transactional
-    public JSONObject createFundAccount(FundAccountRequestDTO request) {
-        // Create in Razorpay
-        JSONObject fundAccountRequest = new JSONObject();
-        fundAccountRequest.put("contact_id", request.getContactId());
-        fundAccountRequest.put("account_type", request.getAccountType());
+    // 1. Create or Get Contact (no DB work; completes on the Razorpay executor)
+    public CompletableFuture<RazorpayContact> createOrGetContact(ContactRequestDTO request) {
+        RazorpayContactRequest contactRequest = new RazorpayContactRequest(
+                request.getName(),
+                request.getEmail(),
+                request.getMobile(),
+                request.getType(),
+                request.getReferenceId());
+        return razorpayAsyncClient.createContact(contactRequest);
+    }
 
-        JSONObject accountDetails = new JSONObject();
+    // 2. Create Fund Account (no DB work; completes on the Razorpay executor)
+    public CompletableFuture<RazorpayFundAccount> createFundAccount(FundAccountRequestDTO request) {
+        // Create in Razorpay
+        RazorpayFundAccountRequest.BankAccount bankAccount = null;
+        RazorpayFundAccountRequest.Vpa vpa = null;
         if ("bank_account".equals(request.getAccountType())) {
-            accountDetails.put("name", request.getAccountHolderName());
-            accountDetails.put("ifsc", request.getIfscCode());
-            accountDetails.put("account_number", request.getAccountNumber());
+            bankAccount = new RazorpayFundAccountRequest.BankAccount(
+                    request.getAccountHolderName(), request.getIfscCode(), request.getAccountNumber());
         } else if ("vpa".equals(request.getAccountType())) {
-            accountDetails.put("address", request.getVpaAddress());
+            vpa = new RazorpayFundAccountRequest.Vpa(request.getVpaAddress());
         }
 
-        fundAccountRequest.put(request.getAccountType(), accountDetails);
+        RazorpayFundAccountRequest fundAccountRequest = new RazorpayFundAccountRequest(
+                request.getContactId(), request.getAccountType(), bankAccount, vpa);
 
-        return razorpayHttpClient.createFundAccount(fundAccountRequest);
+        return razorpayAsyncClient.createFundAccount(fundAccountRequest);
     }
 
     // 3. Initiate Payout
-    @Transactional
+    // Not @Transactional: the reservation insert below must commit (or fail on the unique
+    // reference_id) on its own, before the Razorpay call.
     public PayoutTransaction initiatePayout(PayoutRequestDTO request) {
-        // Check if payout already exists for this reference
+        // Idempotent on reference ID - a retry gets the payout that already exists
         if (request.getReferenceId() != null) {
             Optional<PayoutTransaction> existingPayout = payoutRepository
-                    .findAll().stream()
-                    .filter(p -> p.getReferenceId() != null &&
-                            p.getReferenceId().equals(request.getReferenceId()))
-                    .findFirst();
+                    .findByReferenceId(request.getReferenceId());
 
             if (existingPayout.isPresent()) {
-                throw new RuntimeException("Payout with this reference ID already exists");
+                log.info("Payout for reference {} already exists: {}",
+                        request.getReferenceId(), existingPayout.get().getPayoutId());
+                return existingPayout.get();
             }
         }
 
@@ -101,55 +137,63 @@ public class PayoutService {
         payout.setCreatedUid(getCurrentUserId());
         payout.setUpdatedUid(getCurrentUserId());
 
-        // Create in Razorpay
-        JSONObject payoutRequest = new JSONObject();
-        payoutRequest.put("account_number", razorpayPayoutAc);
-        payoutRequest.put("fund_account_id", request.getFundAccountId());
-        payoutRequest.put("amount", request.getAmount().multiply(BigDecimal.valueOf(100)).intValue());
-        payoutRequest.put("currency", request.getCurrency());
-        payoutRequest.put("mode", request.getMode());
-        payoutRequest.put("purpose", request.getPurpose());
-
-        if (request.getReferenceId() != null) {
-            payoutRequest.put("reference_id", request.getReferenceId());
-        }
-        if (request.getNarration() != null) {
-            payoutRequest.put("narration", request.getNarration());
-        }
-        if (request.getNotes() != null && !request.getNotes().isEmpty()) {
-            payoutRequest.put("notes", new JSONObject(request.getNotes()));
+        // Reserve the reference ID; a concurrent request with the same reference loses here
+        try {
+            payout = payoutRepository.saveAndFlush(payout);
+        } catch (DataIntegrityViolationException e) {
+            if (request.getReferenceId() == null) {
+                throw e;
+            }
+            log.info("Concurrent payout request for reference {}, returning existing payout",
+                    request.getReferenceId());
+            return payoutRepository.findByReferenceId(request.getReferenceId())
+                    .orElseThrow(() -> e);
         }
 
+        // Create in Razorpay
+        RazorpayPayoutRequest payoutRequest = new RazorpayPayoutRequest(
+                razorpayPayoutAc,
+                request.getFundAccountId(),
+                request.getAmount().multiply(BigDecimal.valueOf(100)).longValue(),
+                request.getCurrency(),
+                request.getMode(),
+                request.getPurpose(),
+                request.getReferenceId(),
+                request.getNarration(),
+                request.getNotes() != null && !request.getNotes().isEmpty() ? request.getNotes() : null);
+
         try {
-            JSONObject razorpayResponse = razorpayHttpClient.createPayout(payoutRequest);
-            payout.setRazorpayPayoutId(razorpayResponse.getString("id"));
-            payout.setStatus(razorpayResponse.getString("status"));
-            payout.setFees(BigDecimal.valueOf(razorpayResponse.optDouble("fees", 0))
-                    .divide(BigDecimal.valueOf(100)));
-            payout.setTax(BigDecimal.valueOf(razorpayResponse.optDouble("tax", 0))
-                    .divide(BigDecimal.valueOf(100)));
-            payout.setUtrNumber(razorpayResponse.optString("utr", null));
+            RazorpayPayout razorpayResponse = razorpayHttpClient.createPayout(payoutRequest);
+            payout.setRazorpayPayoutId(razorpayResponse.id());
+            payout.setStatus(razorpayResponse.status());
+            payout.setFees(fromPaise(razorpayResponse.fees()));
+            payout.setTax(fromPaise(razorpayResponse.tax()));
+            payout.setUtrNumber(razorpayResponse.utr());
 
             // Store metadata
-            JSONObject metadata = new JSONObject();
+            Map<String, Object> metadata = new LinkedHashMap<>();
             metadata.put("razorpay_response", razorpayResponse);
             metadata.put("initiated_at", LocalDateTime.now().toString());
-            payout.setMetadata(metadata.toString());
+            payout.setMetadata(toJson(metadata));
 
             ledgerService.recordWithdrawalProcessedSuccess(
-                    razorpayResponse.getString("id"), request.getReferenceId(),
-                    request.getCustomerId(), request.getFundAccountId(), request.getAmount(), getCurrentUserId());
+                    razorpayResponse.id(), request.getReferenceId(),
+                    request.getCustomerId(), request.getFundAccountId(), request.getAmount(), getCurrentUserId()).join();
 
+        } catch (RazorpayRateLimitException e) {
+            // The payout never reached Razorpay: release the reference so the caller can retry it
+            payoutRepository.delete(payout);
+            throw e;
         } catch (Exception e) {
             payout.setStatus("failed");
             payout.setFailureReason(e.getMessage());
             ledgerService.recordWithdrawalFailed(
                     request.getContactId(), request.getReferenceId(),
-                    request.getCustomerId(), request.getFundAccountId(), request.getAmount(), getCurrentUserId());
-            JSONObject metadata = new JSONObject();
+                    request.getCustomerId(), request.getFundAccountId(), request.getAmount(), getCurrentUserId()).join();
+            Map<String, Object> metadata = new LinkedHashMap<>();
             metadata.put("error", e.getMessage());
             metadata.put("failed_at", LocalDateTime.now().toString());
-            payout.setMetadata(metadata.toString());
+            payout.setMetadata(toJson(metadata));
 
             log.error("Failed to create payout in Razorpay", e);
         }
@@ -207,42 +251,56 @@ public class PayoutService {
     }
 
     // 5. Get Payout Status
-    public PayoutTransaction getPayoutStatus(String payoutId) {
+    // Payouts still in flight are refreshed from Razorpay without holding the caller's thread
+    public CompletableFuture<PayoutTransaction> getPayoutStatus(String payoutId) {
         PayoutTransaction payout = payoutRepository.findByPayoutId(payoutId)
                 .orElseThrow(() -> new RuntimeException("Payout not found"));
 
         // If payout is still processing, fetch latest status from Razorpay
-        if ("created".equals(payout.getStatus()) || "processing".equals(payout.getStatus())) {
-            try {
-                JSONObject razorpayStatus = razorpayHttpClient
-                        .getPayoutStatus(payout.getRazorpayPayoutId());
-
-                String newStatus = razorpayStatus.getString("status");
-                if (!newStatus.equals(payout.getStatus())) {
-                    payout.setStatus(newStatus);
-
-                    if (razorpayStatus.has("utr")) {
-                        payout.setUtrNumber(razorpayStatus.getString("utr"));
-                    }
-                    if ("processed".equals(newStatus)) {
-                        payout.setProcessedAt(LocalDateTime.now());
-                    }
-
-                    payoutRepository.save(payout);
-                }
-            } catch (Exception e) {
-                log.warn("Failed to fetch payout status from Razorpay: {}", e.getMessage());
-            }
+        if (!"created".equals(payout.getStatus()) && !"processing".equals(payout.getStatus())) {
+            return CompletableFuture.completedFuture(payout);
+        }
+        // A reserved payout that has not reached Razorpay yet has nothing to refresh
+        if (payout.getRazorpayPayoutId() == null) {
+            return CompletableFuture.completedFuture(payout);
         }
 
-        return payout;
+        // The write runs on payoutUpdateExecutor, not on the payout thread that fetched the status
+        return razorpayAsyncClient.getPayoutStatus(payout.getRazorpayPayoutId())
+                .thenApplyAsync(razorpayStatus -> applyPayoutStatus(payoutId, razorpayStatus), payoutUpdateExecutor)
+                .exceptionally(e -> {
+                    log.warn("Failed to refresh payout status from Razorpay: {}", e.getMessage());
+                    return payout;
+                });
+    }
+
+    // Reloads the payout in its own transaction and only moves it on while it is still
+    // created/processing, so a status settled meanwhile (e.g. by a webhook) is not overwritten
+    private PayoutTransaction applyPayoutStatus(String payoutId, RazorpayPayout razorpayStatus) {
+        return transactionTemplate.execute(tx -> {
+            PayoutTransaction payout = payoutRepository.findByPayoutId(payoutId)
+                    .orElseThrow(() -> new RuntimeException("Payout not found"));
+            String newStatus = razorpayStatus.status();
+            boolean pending = "created".equals(payout.getStatus()) || "processing".equals(payout.getStatus());
+            if (!pending || newStatus == null || newStatus.equals(payout.getStatus())) {
+                return payout;
+            }
+            payout.setStatus(newStatus);
+            if (razorpayStatus.utr() != null) {
+                payout.setUtrNumber(razorpayStatus.utr());
+            }
+            if ("processed".equals(newStatus)) {
+                payout.setProcessedAt(LocalDateTime.now());
+            }
+            return payoutRepository.save(payout);
+        });
     }
 
     // 6. Get User Payouts
-    public Page<PayoutTransaction> getUserPayouts(String customerId, int page, int size) {
+    public Page<PayoutSummaryDTO> getUserPayouts(String customerId, int page, int size) {
         PageRequest pageRequest = PageRequest.of(page, size,
                 Sort.by(Sort.Direction.DESC, "createdAt"));
-        return payoutRepository.findByCustomerId(customerId, pageRequest);
+        return payoutRepository.findSummariesByCustomerId(customerId, pageRequest);
     }
 
     // payout to wallets only digital amount
@@ -253,10 +311,12 @@ public class PayoutService {
         return request;
     }
 
-    @Transactional
+    // Balance check and debit run under the customer's wallet lock (see WalletBalanceService.debit)
     public WalletWithdrawal walletWithdrawalApproved(WalletWithdrawal request) {
-        ledgerService.recordWithdrawalApproved(request.getReferenceId(), request.getFundAccountId(),request.getCustomerId(),
-                request.getContactId(),request.getAmount(), getCurrentUserId());
+        String userId = getCurrentUserId();
+        walletBalanceService.debit(request.getCustomerId(), request.getAmount(), () ->
+                ledgerService.recordWithdrawalApproved(request.getReferenceId(), request.getFundAccountId(),request.getCustomerId(),
+                        request.getContactId(),request.getAmount(), userId));
         return request;
     }
 }
\ No newline at end of file
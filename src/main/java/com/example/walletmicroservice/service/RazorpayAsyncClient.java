@@ -0,0 +1,95 @@
+package com.example.walletmicroservice.service;
+
+import com.example.walletmicroservice.config.RazorpayCredentials;
+import com.example.walletmicroservice.dto.RazorpayContact;
+import com.example.walletmicroservice.dto.RazorpayContactRequest;
+import com.example.walletmicroservice.dto.RazorpayFundAccount;
+import com.example.walletmicroservice.dto.RazorpayFundAccountRequest;
+import com.example.walletmicroservice.dto.RazorpayPayout;
+import com.example.walletmicroservice.dto.RazorpayPayoutRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CompletableFuture variants of the Razorpay calls. The round trips run on the dedicated
+ * razorpayExecutor and every future fails with a TimeoutException after
+ * {@code razorpay.async.timeout-ms}, so callers never wait on Razorpay unbounded.
+ * Payout-side calls (contacts, fund accounts, payouts) run on their own executor, so
+ * payout calls queued behind the rate limiter cannot tie up the threads checkout needs.
+ *
+ * Note the timeout does not interrupt the underlying HTTP call, which is still bounded by
+ * the razorpay.http.* socket timeouts.
+ */
+@Service
+@Slf4j
+public class RazorpayAsyncClient {
+
+    private final RazorpayHttpClientService razorpayHttpClient;
+    private final RazorpayCredentials razorpayCredentials;
+    private final RazorpayRateLimiter rateLimiter;
+    private final Executor executor;
+    private final Executor payoutExecutor;
+    private final long timeoutMs;
+
+    public RazorpayAsyncClient(RazorpayHttpClientService razorpayHttpClient,
+                               RazorpayCredentials razorpayCredentials,
+                               RazorpayRateLimiter rateLimiter,
+                               @Qualifier("razorpayExecutor") Executor executor,
+                               @Qualifier("razorpayPayoutExecutor") Executor payoutExecutor,
+                               @Value("${razorpay.async.timeout-ms:15000}") long timeoutMs) {
+        this.razorpayHttpClient = razorpayHttpClient;
+        this.razorpayCredentials = razorpayCredentials;
+        this.rateLimiter = rateLimiter;
+        this.executor = executor;
+        this.payoutExecutor = payoutExecutor;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public CompletableFuture<RazorpayContact> createContact(RazorpayContactRequest request) {
+        return supply(payoutExecutor, () -> razorpayHttpClient.createContact(request));
+    }
+
+    public CompletableFuture<RazorpayFundAccount> createFundAccount(RazorpayFundAccountRequest request) {
+        return supply(payoutExecutor, () -> razorpayHttpClient.createFundAccount(request));
+    }
+
+    public CompletableFuture<RazorpayPayout> createPayout(RazorpayPayoutRequest request) {
+        return supply(payoutExecutor, () -> razorpayHttpClient.createPayout(request));
+    }
+
+    public CompletableFuture<RazorpayPayout> getPayoutStatus(String razorpayPayoutId) {
+        return supply(payoutExecutor, () -> razorpayHttpClient.getPayoutStatus(razorpayPayoutId));
+    }
+
+    public CompletableFuture<JSONObject> fetchPayment(String razorpayPaymentId) {
+        return supply(executor, () -> rateLimiter.execute(RazorpayRateLimiter.Endpoint.PAYMENTS,
+                () -> razorpayCredentials.client().payments.fetch(razorpayPaymentId).toJson()));
+    }
+
+    private <T> CompletableFuture<T> supply(Executor executor, Callable<T> call) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return call.call();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, executor).orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.warn("Razorpay executor saturated, rejecting call");
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -1,49 +1,74 @@
 package com.example.walletmicroservice.service;
 
-import lombok.RequiredArgsConstructor;
+import com.example.walletmicroservice.config.RazorpayCredentials;
+import com.example.walletmicroservice.dto.RazorpayContact;
+import com.example.walletmicroservice.dto.RazorpayContactRequest;
+import com.example.walletmicroservice.dto.RazorpayFundAccount;
+import com.example.walletmicroservice.dto.RazorpayFundAccountRequest;
+import com.example.walletmicroservice.dto.RazorpayPayout;
+import com.example.walletmicroservice.dto.RazorpayPayoutRequest;
+import com.example.walletmicroservice.exception.RazorpayRateLimitException;
+import com.example.walletmicroservice.service.RazorpayRateLimiter.Endpoint;
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.extern.slf4j.Slf4j;
-import org.json.JSONObject;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 
-import java.util.Base64;
+import java.util.Map;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class RazorpayHttpClientService {
 
-    @Value("${razorpay.key.id}")
-    private String razorpayKeyId;
-
-    @Value("${razorpay.key.secret}")
-    private String razorpayKeySecret;
-
-    @Value("${razorpay.base-url}")
-    private String razorpayBaseUrl;
-
     private final RestTemplate restTemplate;
+    private final RazorpayCredentials credentials;
+    private final RazorpayRateLimiter rateLimiter;
+
+    // Endpoint URLs, resolved once
+    private final String contactsUrl;
+    private final String fundAccountsUrl;
+    private final String payoutsUrl;
+    private final String vpaValidityUrl;
+
+    // Dedicated keep-alive pool (razorpay.http.*), see RazorpayHttpClientConfig
+    public RazorpayHttpClientService(@Qualifier("razorpayRestTemplate") RestTemplate restTemplate,
+                                     RazorpayCredentials credentials,
+                                     RazorpayRateLimiter rateLimiter,
+                                     @Value("${razorpay.base-url}") String razorpayBaseUrl) {
+        this.restTemplate = restTemplate;
+        this.credentials = credentials;
+        this.rateLimiter = rateLimiter;
+
+        String baseUrl = razorpayBaseUrl.trim();
+        this.contactsUrl = baseUrl + "/contacts";
+        this.fundAccountsUrl = baseUrl + "/fund_accounts";
+        this.payoutsUrl = baseUrl + "/payouts";
+        this.vpaValidityUrl = baseUrl + "/fund_accounts/validity";
+    }
 
+    // Shared read-only headers, rebuilt by RazorpayCredentials only on rotation
     private HttpHeaders createHeaders() {
-        String auth = razorpayKeyId + ":" + razorpayKeySecret;
-        String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes());
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", "Basic " + encodedAuth);
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        return headers;
+        return credentials.headers();
     }
 
+    // Every call goes through the per-endpoint rate limiter / bulkhead; limit errors pass through
+    // unwrapped so callers can honour their retry-after.
+    // Bodies are written and read by the Jackson converter straight to and from the
+    // HTTP streams - no intermediate String or org.json tree.
+
     // 1. Create Contact
-    public JSONObject createContact(JSONObject contactRequest) {
-        String url = razorpayBaseUrl + "/contacts";
-        HttpEntity<String> entity = new HttpEntity<>(contactRequest.toString(), createHeaders());
+    public RazorpayContact createContact(RazorpayContactRequest contactRequest) {
+        String url = contactsUrl;
+        HttpEntity<RazorpayContactRequest> entity = new HttpEntity<>(contactRequest, createHeaders());
 
         try {
-            ResponseEntity<String> response = restTemplate.postForEntity(url, entity, String.class);
-            return new JSONObject(response.getBody());
+            return rateLimiter.execute(Endpoint.CONTACTS,
+                    () -> restTemplate.postForObject(url, entity, RazorpayContact.class));
+        } catch (RazorpayRateLimitException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error creating contact", e);
             throw new RuntimeException("Failed to create contact: " + e.getMessage());
@@ -51,13 +76,15 @@ public class RazorpayHttpClientService {
     }
 
     // 2. Create Fund Account
-    public JSONObject createFundAccount(JSONObject fundAccountRequest) {
-        String url = razorpayBaseUrl + "/fund_accounts";
-        HttpEntity<String> entity = new HttpEntity<>(fundAccountRequest.toString(), createHeaders());
+    public RazorpayFundAccount createFundAccount(RazorpayFundAccountRequest fundAccountRequest) {
+        String url = fundAccountsUrl;
+        HttpEntity<RazorpayFundAccountRequest> entity = new HttpEntity<>(fundAccountRequest, createHeaders());
 
         try {
-            ResponseEntity<String> response = restTemplate.postForEntity(url, entity, String.class);
-            return new JSONObject(response.getBody());
+            return rateLimiter.execute(Endpoint.FUND_ACCOUNTS,
+                    () -> restTemplate.postForObject(url, entity, RazorpayFundAccount.class));
+        } catch (RazorpayRateLimitException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error creating fund account", e);
             throw new RuntimeException("Failed to create fund account: " + e.getMessage());
@@ -65,13 +92,15 @@ public class RazorpayHttpClientService {
     }
 
     // 3. Create Payout
-    public JSONObject createPayout(JSONObject payoutRequest) {
-        String url = razorpayBaseUrl + "/payouts";
-        HttpEntity<String> entity = new HttpEntity<>(payoutRequest.toString(), createHeaders());
+    public RazorpayPayout createPayout(RazorpayPayoutRequest payoutRequest) {
+        String url = payoutsUrl;
+        HttpEntity<RazorpayPayoutRequest> entity = new HttpEntity<>(payoutRequest, createHeaders());
 
         try {
-            ResponseEntity<String> response = restTemplate.postForEntity(url, entity, String.class);
-            return new JSONObject(response.getBody());
+            return rateLimiter.execute(Endpoint.PAYOUTS,
+                    () -> restTemplate.postForObject(url, entity, RazorpayPayout.class));
+        } catch (RazorpayRateLimitException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error creating payout", e);
             throw new RuntimeException("Failed to create payout: " + e.getMessage());
@@ -79,14 +108,16 @@ public class RazorpayHttpClientService {
     }
 
     // 4. Get Payout Status
-    public JSONObject getPayoutStatus(String razorpayPayoutId) {
-        String url = razorpayBaseUrl + "/payouts/" + razorpayPayoutId;
-        HttpEntity<String> entity = new HttpEntity<>(createHeaders());
+    public RazorpayPayout getPayoutStatus(String razorpayPayoutId) {
+        String url = payoutsUrl + "/" + razorpayPayoutId;
+        HttpEntity<Void> entity = new HttpEntity<>(createHeaders());
 
         try {
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url, HttpMethod.GET, entity, String.class);
-            return new JSONObject(response.getBody());
+            ResponseEntity<RazorpayPayout> response = rateLimiter.execute(Endpoint.PAYOUTS,
+                    () -> restTemplate.exchange(url, HttpMethod.GET, entity, RazorpayPayout.class));
+            return response.getBody();
+        } catch (RazorpayRateLimitException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error fetching payout status", e);
             throw new RuntimeException("Failed to fetch payout status: " + e.getMessage());
@@ -94,20 +125,18 @@ public class RazorpayHttpClientService {
     }
 
     // 5. Validate VPA
-    public JSONObject validateVPA(String vpa) {
-        String url = razorpayBaseUrl + "/fund_accounts/validity";
-
-        JSONObject request = new JSONObject();
-        request.put("vpa", vpa);
-
-        HttpEntity<String> entity = new HttpEntity<>(request.toString(), createHeaders());
+    public JsonNode validateVPA(String vpa) {
+        String url = vpaValidityUrl;
+        HttpEntity<Map<String, String>> entity = new HttpEntity<>(Map.of("vpa", vpa), createHeaders());
 
         try {
-            ResponseEntity<String> response = restTemplate.postForEntity(url, entity, String.class);
-            return new JSONObject(response.getBody());
+            return rateLimiter.execute(Endpoint.FUND_ACCOUNTS,
+                    () -> restTemplate.postForObject(url, entity, JsonNode.class));
+        } catch (RazorpayRateLimitException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error validating VPA", e);
             throw new RuntimeException("Failed to validate VPA: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,169 @@
+package com.example.walletmicroservice.service;
+
+import com.example.walletmicroservice.config.RazorpayRateLimitSettings;
+import com.example.walletmicroservice.exception.RazorpayRateLimitException;
+import com.example.walletmicroservice.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side rate limit and bulkhead for Razorpay, partitioned by endpoint class. Every
+ * class has its own token bucket and concurrency limit, so a payout batch can exhaust only
+ * the payout share and never delays orders or payments.
+ *
+ * A call that cannot get a token and a permit within {@code razorpay.limits.max-wait-ms}
+ * (or the class's own max-wait-ms) fails fast with {@link RazorpayRateLimitException}; a
+ * token taken for a call that then missed its permit is given back. Every class calls with
+ * the one key in RazorpayCredentials, and Razorpay counts 429s against the key, so a 429
+ * from the RestTemplate path pauses the buckets of all classes for the Retry-After the server
+ * sent. The SDK does not expose response headers, so SDK calls are limited but cannot honour
+ * Retry-After.
+ */
+@Service
+@Slf4j
+public class RazorpayRateLimiter {
+
+    public enum Endpoint {
+        ORDERS, PAYMENTS, PAYOUTS, CONTACTS, FUND_ACCOUNTS
+    }
+
+    @FunctionalInterface
+    public interface RazorpayCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    private static final class Partition {
+        private final TokenBucket bucket;
+        private final Semaphore bulkhead;
+        private final long maxWaitNanos;
+        private final Counter rejected;
+        private final Counter throttled;
+
+        private Partition(TokenBucket bucket, Semaphore bulkhead, long maxWaitNanos,
+                          Counter rejected, Counter throttled) {
+            this.bucket = bucket;
+            this.bulkhead = bulkhead;
+            this.maxWaitNanos = maxWaitNanos;
+            this.rejected = rejected;
+            this.throttled = throttled;
+        }
+    }
+
+    private final Map<Endpoint, Partition> partitions = new EnumMap<>(Endpoint.class);
+    private final Duration defaultRetryAfter;
+
+    public RazorpayRateLimiter(RazorpayRateLimitSettings settings, MeterRegistry meterRegistry) {
+        this.defaultRetryAfter = Duration.ofMillis(settings.getDefaultRetryAfterMs());
+
+        register(Endpoint.ORDERS, settings.getOrders(), settings.getMaxWaitMs(), meterRegistry);
+        register(Endpoint.PAYMENTS, settings.getPayments(), settings.getMaxWaitMs(), meterRegistry);
+        register(Endpoint.PAYOUTS, settings.getPayouts(), settings.getMaxWaitMs(), meterRegistry);
+        register(Endpoint.CONTACTS, settings.getContacts(), settings.getMaxWaitMs(), meterRegistry);
+        register(Endpoint.FUND_ACCOUNTS, settings.getFundAccounts(), settings.getMaxWaitMs(), meterRegistry);
+    }
+
+    private void register(Endpoint endpoint, RazorpayRateLimitSettings.Limit limit, long defaultMaxWaitMs,
+                          MeterRegistry meterRegistry) {
+        String tag = endpoint.name().toLowerCase();
+        Semaphore bulkhead = new Semaphore(limit.getMaxConcurrent(), true);
+        long maxWaitMs = limit.getMaxWaitMs() != null ? limit.getMaxWaitMs() : defaultMaxWaitMs;
+        partitions.put(endpoint, new Partition(
+                new TokenBucket(limit.getRatePerSecond(), limit.getBurst()),
+                bulkhead,
+                TimeUnit.MILLISECONDS.toNanos(maxWaitMs),
+                Counter.builder("razorpay.ratelimit.rejected").tag("endpoint", tag)
+                        .description("Calls turned away before reaching Razorpay").register(meterRegistry),
+                Counter.builder("razorpay.ratelimit.throttled").tag("endpoint", tag)
+                        .description("Calls answered with 429 by Razorpay").register(meterRegistry)));
+        Gauge.builder("razorpay.bulkhead.in.flight", bulkhead, b -> limit.getMaxConcurrent() - b.availablePermits())
+                .tag("endpoint", tag)
+                .description("Razorpay calls in flight").register(meterRegistry);
+    }
+
+    /**
+     * Run one Razorpay call within the limits of its endpoint class, queueing for at most
+     * {@code max-wait-ms}.
+     */
+    public <T, E extends Exception> T execute(Endpoint endpoint, RazorpayCall<T, E> call) throws E {
+        Partition partition = partitions.get(endpoint);
+        long deadline = System.nanoTime() + partition.maxWaitNanos;
+
+        boolean tokenTaken = false;
+        try {
+            if (!partition.bucket.acquire(deadline)) {
+                throw reject(endpoint, partition, "rate limit");
+            }
+            tokenTaken = true;
+            long remaining = deadline - System.nanoTime();
+            if (!partition.bulkhead.tryAcquire(Math.max(0, remaining), TimeUnit.NANOSECONDS)) {
+                // The call is not made, so its token goes to the next caller
+                partition.bucket.refund();
+                throw reject(endpoint, partition, "concurrency limit");
+            }
+        } catch (InterruptedException e) {
+            // acquire() gives back a token it was interrupted waiting for
+            if (tokenTaken) {
+                partition.bucket.refund();
+            }
+            Thread.currentThread().interrupt();
+            throw new RazorpayRateLimitException(endpoint, defaultRetryAfter,
+                    "Interrupted while waiting to call Razorpay " + endpoint);
+        }
+
+        try {
+            return call.call();
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            Duration retryAfter = parseRetryAfter(e.getResponseHeaders());
+            for (Partition shared : partitions.values()) {
+                shared.bucket.pause(retryAfter.toNanos());
+            }
+            partition.throttled.increment();
+            log.warn("Razorpay {} rate limited, pausing all calls for {} ms", endpoint, retryAfter.toMillis());
+            throw new RazorpayRateLimitException(endpoint, retryAfter, "Razorpay " + endpoint + " rate limited");
+        } finally {
+            partition.bulkhead.release();
+        }
+    }
+
+    private RazorpayRateLimitException reject(Endpoint endpoint, Partition partition, String limit) {
+        partition.rejected.increment();
+        Duration retryAfter = Duration.ofNanos(Math.max(partition.bucket.nanosUntilAvailable(),
+                TimeUnit.MILLISECONDS.toNanos(100)));
+        return new RazorpayRateLimitException(endpoint, retryAfter,
+                "Razorpay " + endpoint + " " + limit + " reached, retry later");
+    }
+
+    // Retry-After is either delay-seconds or an HTTP date
+    private Duration parseRetryAfter(HttpHeaders headers) {
+        String value = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (value == null || value.isBlank()) {
+            return defaultRetryAfter;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                Instant at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                Duration delay = Duration.between(Instant.now(), at);
+                return delay.isNegative() ? Duration.ZERO : delay;
+            } catch (DateTimeParseException ignored) {
+                return defaultRetryAfter;
+            }
+        }
+    }
+}
@@ -1,36 +1,36 @@
 package com.example.walletmicroservice.service;
 
+import com.example.walletmicroservice.config.RazorpayCredentials;
 import com.example.walletmicroservice.dto.*;
 import com.example.walletmicroservice.entity.PaymentTransaction;
+import com.example.walletmicroservice.entity.PaymentTransactionEvent;
 import com.example.walletmicroservice.entity.GeneralLedger;
 import com.example.walletmicroservice.entity.ChartOfAccounts;
 import com.example.walletmicroservice.repository.PaymentTransactionRepository;
 import com.example.walletmicroservice.repository.GeneralLedgerRepository;
 import com.example.walletmicroservice.repository.ChartOfAccountsRepository;
+import com.example.walletmicroservice.util.KeysetCursor;
 import com.razorpay.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.codec.binary.Hex;
 import org.json.JSONArray;
 import org.json.JSONObject;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 import static com.example.walletmicroservice.util.SecurityUtil.getCurrentUserId;
 
@@ -39,20 +39,27 @@ import static com.example.walletmicroservice.util.SecurityUtil.getCurrentUserId;
 @Slf4j
 public class RazorpayService {
 
-    private final RazorpayClient razorpayClient;
+    private final RazorpayCredentials razorpayCredentials;
+    private final RazorpayAsyncClient razorpayAsyncClient;
+    private final RazorpayRateLimiter rateLimiter;
     private final PaymentTransactionRepository paymentTransactionRepository;
     private final LedgerService ledgerService;
+    private final SignatureVerifier signatureVerifier;
+    private final PaymentTransactionEventService eventService;
+    private final TransactionTemplate transactionTemplate;
 
-    @Value("${razorpay.key.id}")
-    private String razorpayKeyId;
-
-    @Value("${razorpay.key.secret}")
-    private String razorpayKeySecret;
+    private static final String NOTE_TRANSACTION_ID = "internal_transaction_id";
+    private static final String NOTE_CREATED_UID = "created_uid";
 
     // ================================
     // API-1: CREATE ORDER
     // ================================
-    @Transactional
+    /**
+     * Not @Transactional on purpose: the Razorpay round trip happens with no DB
+     * connection held, and only the insert runs in its own short transaction.
+     * Orders created in Razorpay whose insert failed are picked up by
+     * {@link OrderReconciliationService}.
+     */
     public OrderResponseDTO createOrder(OrderRequestDTO request) throws RazorpayException {
         log.info("Creating order for customer: {}, amount: {}", request.getCustomerId(), request.getAmount());
 
@@ -60,6 +67,7 @@ public class RazorpayService {
         String internalTransactionId = "TXN" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 8);
         String internalOrderId = request.getOrderId() != null ? request.getOrderId() :
                 "ORD" + System.currentTimeMillis() + "_" + request.getCustomerId();
+        String userId = getCurrentUserId();
 
         // Create Razorpay Order
         JSONObject orderRequest = new JSONObject();
@@ -77,36 +85,27 @@ public class RazorpayService {
                 notes.put(entry.getKey(), entry.getValue());
             }
         }
+        // Enough to rebuild the transaction if the insert below fails
+        notes.put(NOTE_TRANSACTION_ID, internalTransactionId);
+        notes.put(NOTE_CREATED_UID, userId);
 
         orderRequest.put("notes", notes);
 
-        // Call Razorpay API
-        Order razorpayOrder = razorpayClient.orders.create(orderRequest);
+        // Call Razorpay API (no transaction / DB connection held)
+        Order razorpayOrder = rateLimiter.execute(RazorpayRateLimiter.Endpoint.ORDERS,
+                () -> razorpayCredentials.client().orders.create(orderRequest));
         String razorpayOrderId = razorpayOrder.get("id");
 
-        // Create PaymentTransaction entity
-        PaymentTransaction transaction = new PaymentTransaction();
-        transaction.setTransactionId(internalTransactionId);
-        transaction.setCustomerId(request.getCustomerId());
-        transaction.setOrderId(internalOrderId);
-        transaction.setAmount(request.getAmount());
-        transaction.setCurrency(request.getCurrency());
-        transaction.setCreatedUid(getCurrentUserId());
-        transaction.setUpdatedUid(getCurrentUserId());
-
-        // Use the setOrderCreateFields method from entity
-        JSONObject razorpayResponse = new JSONObject(razorpayOrder.toString());
-        transaction.setOrderCreateFields(
-                internalTransactionId,
-                request.getCustomerId(),
-                internalOrderId,
-                request.getAmount(),
-                razorpayOrderId,
-                razorpayResponse
-        );
-
-        // Save transaction
-        PaymentTransaction savedTransaction = paymentTransactionRepository.save(transaction);
+        // Short transaction for the inserts only
+        PaymentTransaction transaction = buildOrderTransaction(internalTransactionId, request.getCustomerId(),
+                internalOrderId, request.getAmount(), request.getCurrency(), razorpayOrder, userId);
+        try {
+            transactionTemplate.executeWithoutResult(status -> saveNewOrder(transaction));
+        } catch (RuntimeException e) {
+            log.error("Razorpay order {} created but not persisted, left for reconciliation: TransactionId={}",
+                    razorpayOrderId, internalTransactionId, e);
+            throw e;
+        }
 
         // Create response DTO
         OrderResponseDTO response = new OrderResponseDTO();
@@ -116,7 +115,7 @@ public class RazorpayService {
         response.setCustomerId(request.getCustomerId());
         response.setAmount(request.getAmount());
         response.setCurrency(request.getCurrency());
-        response.setKeyId(razorpayKeyId);
+        response.setKeyId(razorpayCredentials.keyId());
         response.setStatus("created");
         response.setCreatedAt(String.valueOf(LocalDateTime.now()));
 
@@ -126,6 +125,74 @@ public class RazorpayService {
         return response;
     }
 
+    /**
+     * Persist a Razorpay order that was created by {@link #createOrder} but never saved.
+     *
+     * @return true if a missing transaction was inserted
+     */
+    public boolean reconcileOrder(Order razorpayOrder) {
+        String razorpayOrderId = razorpayOrder.get("id");
+        JSONObject orderJson = razorpayOrder.toJson();
+        JSONObject notes = orderJson.optJSONObject("notes");
+
+        // Only orders created by this service carry our transaction id
+        if (notes == null || !notes.has(NOTE_TRANSACTION_ID)
+                || paymentTransactionRepository.existsByRazorpayOrderId(razorpayOrderId)) {
+            return false;
+        }
+
+        BigDecimal amount = BigDecimal.valueOf(orderJson.getLong("amount")).movePointLeft(2);
+        PaymentTransaction transaction = buildOrderTransaction(
+                notes.getString(NOTE_TRANSACTION_ID),
+                notes.optString("customer_id"),
+                notes.optString("internal_order_id", orderJson.optString("receipt")),
+                amount,
+                orderJson.optString("currency", "INR"),
+                razorpayOrder,
+                notes.optString(NOTE_CREATED_UID, null));
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> saveNewOrder(transaction));
+        } catch (DataIntegrityViolationException e) {
+            // Inserted concurrently (late original insert or another node)
+            return false;
+        }
+
+        log.warn("Reconciled Razorpay order missing locally: RazorpayOrderId={}, TransactionId={}",
+                razorpayOrderId, transaction.getTransactionId());
+        return true;
+    }
+
+    private void saveNewOrder(PaymentTransaction transaction) {
+        paymentTransactionRepository.save(transaction);
+
+        JSONObject payload = new JSONObject();
+        payload.put("razorpay_order_id", transaction.getRazorpayOrderId());
+        payload.put("amount", transaction.getAmount());
+        payload.put("currency", transaction.getCurrency());
+        eventService.record(transaction.getTransactionId(), PaymentTransactionEvent.EventType.ORDER_CREATED, payload);
+    }
+
+    private PaymentTransaction buildOrderTransaction(String transactionId, String customerId, String orderId,
+                                                     BigDecimal amount, String currency, Order razorpayOrder,
+                                                     String userId) {
+        PaymentTransaction transaction = new PaymentTransaction();
+        transaction.setCurrency(currency);
+        transaction.setCreatedUid(userId);
+
+        // Use the setOrderCreateFields method from entity (toJson() is the SDK's own tree, no copy)
+        transaction.setOrderCreateFields(
+                transactionId,
+                customerId,
+                orderId,
+                amount,
+                razorpayOrder.get("id"),
+                razorpayOrder.toJson()
+        );
+        transaction.setUpdatedUid(userId);
+        return transaction;
+    }
+
     // ================================
     // API-2: GET PAYMENT TRANSACTION
     // ================================
@@ -138,21 +205,7 @@ public class RazorpayService {
     // API-3: VERIFY PAYMENT SIGNATURE
     // ================================
     public boolean verifySignature(String paymentId, String orderId, String signature) {
-        try {
-            String payload = orderId + "|" + paymentId;
-
-            Mac mac = Mac.getInstance("HmacSHA256");
-            SecretKeySpec key = new SecretKeySpec(razorpayKeySecret.trim().getBytes(StandardCharsets.UTF_8), "HmacSHA256");
-            mac.init(key);
-            byte[] hash = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
-
-            String generated = Hex.encodeHexString(hash);
-            return generated.equals(signature.trim());
-
-        } catch (Exception e) {
-            log.error("Signature verification failed", e);
-            return false;
-        }
+        return signatureVerifier.verifyPaymentSignature(orderId, paymentId, signature);
     }
 
     // ================================
@@ -160,7 +213,8 @@ public class RazorpayService {
     // ================================
     public String getPaymentStatus(String paymentId, String orderId) {
         try {
-            Payment payment = razorpayClient.payments.fetch(paymentId);
+            Payment payment = rateLimiter.execute(RazorpayRateLimiter.Endpoint.PAYMENTS,
+                    () -> razorpayCredentials.client().payments.fetch(paymentId));
             String status = payment.get("status").toString();
             String method = payment.get("method").toString().toUpperCase();
 
@@ -180,8 +234,12 @@ public class RazorpayService {
 
                 transaction.setPaymentVerificationFields(paymentId, true, verificationDetails);
 
-                paymentTransactionRepository.save(transaction);
-                ledgerService.recordPaymentSuccess(paymentId, transaction.getTransactionId(),transaction.getCustomerId(), orderId, transaction.getAmount(), getCurrentUserId());
+                transactionTemplate.executeWithoutResult(txStatus -> {
+                    paymentTransactionRepository.save(transaction);
+                    eventService.record(transaction.getTransactionId(),
+                            PaymentTransactionEvent.EventType.PAYMENT_VERIFIED, verificationDetails);
+                });
+                ledgerService.recordPaymentSuccess(paymentId, transaction.getTransactionId(),transaction.getCustomerId(), orderId, transaction.getAmount(), getCurrentUserId()).join();
             }
 
             return switch (status) {
@@ -233,17 +291,14 @@ public class RazorpayService {
 
         for (PaymentTransaction transaction : transactions) {
             String method = payment.optString("method", "unknown").toUpperCase();
-            JSONObject paymentDetails = new JSONObject(payment.toString());
 
             // Use the setPaymentCaptureFields method
-            transaction.setPaymentCaptureFields(
-                    razorpayPaymentId,
-                    method,
-                    paymentDetails,
-                    webhookPayload
-            );
+            transaction.setPaymentCaptureFields(razorpayPaymentId, method);
 
             PaymentTransaction savedTransaction = paymentTransactionRepository.save(transaction);
+            // The payment entity alone; the webhook envelope around it adds nothing
+            eventService.record(transaction.getTransactionId(),
+                    PaymentTransactionEvent.EventType.PAYMENT_CAPTURED, payment);
 
             // Create General Ledger entries
 
@@ -270,6 +325,9 @@ public class RazorpayService {
             );
 
             paymentTransactionRepository.save(transaction);
+            failureDetails.put("razorpay_payment_id", razorpayPaymentId);
+            eventService.record(transaction.getTransactionId(),
+                    PaymentTransactionEvent.EventType.PAYMENT_FAILED, failureDetails);
             log.warn("Payment failed: OrderId={}, PaymentId={}", razorpayOrderId, razorpayPaymentId);
         }
     }
@@ -314,29 +372,30 @@ public class RazorpayService {
         refundRequest.put("speed", "normal");
         refundRequest.put("receipt", "Refund-" + request.getPaymentTransactionId());
 
-        Refund razorpayRefund = razorpayClient.payments.refund(
-                originalTransaction.getRazorpayPaymentId(),
-                refundRequest
-        );
+        Refund razorpayRefund = rateLimiter.execute(RazorpayRateLimiter.Endpoint.PAYMENTS,
+                () -> razorpayCredentials.client().payments.refund(originalTransaction.getRazorpayPaymentId(), refundRequest));
 
         String razorpayRefundId = razorpayRefund.get("id");
 
         // Update refund transaction with processing details
-        JSONObject razorpayResponse = new JSONObject(razorpayRefund.toString());
-        originalTransaction.setRefundProcessingFields(razorpayRefundId, razorpayResponse);
+        originalTransaction.setRefundProcessingFields(razorpayRefundId);
 
         // Update original transaction
         originalTransaction.setRefundStatus(PaymentTransaction.RefundStatus.PROCESSED);
         originalTransaction.setRefundProcessedAt(LocalDateTime.now());
-        paymentTransactionRepository.save(originalTransaction);
 
-        // Save refund transaction
-        PaymentTransaction savedRefund = paymentTransactionRepository.save(originalTransaction);
+        // Save refund transaction together with its timeline event
+        PaymentTransaction savedRefund = transactionTemplate.execute(status -> {
+            PaymentTransaction saved = paymentTransactionRepository.save(originalTransaction);
+            eventService.record(saved.getTransactionId(),
+                    PaymentTransactionEvent.EventType.REFUND_PROCESSED, razorpayRefund.toJson());
+            return saved;
+        });
 
         // Create General Ledger entries
         ledgerService.recordWithdrawalProcessedSuccess(
                     originalTransaction.getRazorpayPaymentId(), originalTransaction.getTransactionId(),
-                    request.getCustomerId(), originalTransaction.getOrderId(), request.getAmount(), getCurrentUserId());
+                    request.getCustomerId(), originalTransaction.getOrderId(), request.getAmount(), getCurrentUserId()).join();
 
         log.info("Refund processed with Razorpay: RefundId={}, RazorpayRefundId={}",
                 savedRefund.getTransactionId(), razorpayRefundId);
@@ -357,17 +416,32 @@ public class RazorpayService {
 
         // Update refund transaction if exists
         paymentTransactionRepository.findByRazorpayRefundId(razorpayRefundId).ifPresent(transaction -> {
-            JSONObject razorpayResponse = new JSONObject(refund.toString());
-            transaction.setRefundProcessingFields(razorpayRefundId, razorpayResponse);
+            transaction.setRefundProcessingFields(razorpayRefundId);
             paymentTransactionRepository.save(transaction);
+            eventService.record(transaction.getTransactionId(),
+                    PaymentTransactionEvent.EventType.REFUND_PROCESSED, refund);
 
             log.info("Refund processed webhook received: RazorpayRefundId={}", razorpayRefundId);
         });
     }
 
     public RefundApprovalDTO handleRefundApproved(RefundApprovalDTO approvalRequest){
-        ledgerService.recordRefundApproved(approvalRequest.getPaymentTransactionId(), approvalRequest.getTransactionId(),
-                approvalRequest.getCustomerId(), approvalRequest.getOrderId(), approvalRequest.getAmount(), getCurrentUserId());
+        JSONObject payload = new JSONObject();
+        payload.put("payment_transaction_id", approvalRequest.getPaymentTransactionId());
+        payload.put("amount", approvalRequest.getAmount());
+        payload.put("approver_id", approvalRequest.getApproverId());
+
+        // The ledger posting is written inline in this transaction, so it commits with the event;
+        // its future completes at commit and is only joined afterwards
+        CompletableFuture<Void> posted = transactionTemplate.execute(status -> {
+            CompletableFuture<Void> posting = ledgerService.recordRefundApproved(
+                    approvalRequest.getPaymentTransactionId(), approvalRequest.getTransactionId(),
+                    approvalRequest.getCustomerId(), approvalRequest.getOrderId(), approvalRequest.getAmount(),
+                    getCurrentUserId());
+            eventService.record(approvalRequest.getTransactionId(), PaymentTransactionEvent.EventType.REFUND_APPROVED, payload);
+            return posting;
+        });
+        posted.join();
         log.info("Refund processed RefundApproved received: RazorpayRefundId={}", approvalRequest);
         return approvalRequest;
     };
@@ -375,8 +449,8 @@ public class RazorpayService {
     // ================================
     // API-8: GET PENDING REFUNDS
     // ================================
-    public Page<PaymentTransaction> getPendingRefunds(int page, int size) {
-        return paymentTransactionRepository.findByRefundApprovalStatus(
+    public Page<PaymentTransactionSummaryDTO> getPendingRefunds(int page, int size) {
+        return paymentTransactionRepository.findSummariesByRefundApprovalStatus(
                 PaymentTransaction.RefundApprovalStatus.PENDING,
                 PageRequest.of(page, size, Sort.by("refundRequestedAt").descending())
         );
@@ -385,36 +459,66 @@ public class RazorpayService {
     // ================================
     // ADDITIONAL HELPER METHODS
     // ================================
-    public JSONObject getPaymentDetails(String razorpayPaymentId) throws RazorpayException {
-        return razorpayClient.payments.fetch(razorpayPaymentId).toJson();
+    /**
+     * Metadata sections of one transaction, for detail views (list endpoints leave them out)
+     */
+    public PaymentMetadataDTO getPaymentMetadata(String transactionId) {
+        return paymentTransactionRepository.findMetadataByTransactionId(transactionId)
+                .orElseThrow(() -> new RuntimeException("Transaction not found: " + transactionId));
+    }
+
+    /**
+     * Timeline of a transaction from payment_transaction_events, oldest first
+     */
+    public List<PaymentTransactionEventDTO> getTransactionTimeline(String transactionId, long afterId, int limit) {
+        return eventService.getTimeline(transactionId, afterId, limit);
+    }
+
+    public CompletableFuture<JSONObject> getPaymentDetails(String razorpayPaymentId) {
+        return razorpayAsyncClient.fetchPayment(razorpayPaymentId);
     }
 
     /**
      * Get user transactions with pagination
      */
-    public Page<PaymentTransaction> getUserTransactions(String userId, int page, int size,
+    public Page<PaymentTransactionSummaryDTO> getUserTransactions(String userId, int page, int size,
                                                         String sortBy, String sortDirection) {
         Sort.Direction direction = sortDirection.equalsIgnoreCase("ASC") ?
                 Sort.Direction.ASC : Sort.Direction.DESC;
         PageRequest pageRequest = PageRequest.of(page, size, Sort.by(direction, sortBy));
 
-        return paymentTransactionRepository.findByCustomerId(userId, pageRequest);
+        return paymentTransactionRepository.findSummariesByCustomerId(userId, pageRequest);
     }
 
     /**
      * Get recent user transactions (simple version)
      */
-    public List<PaymentTransaction> getRecentUserTransactions(String userId, int limit) {
-        // First get ALL transactions for user
-        List<PaymentTransaction> allTransactions = paymentTransactionRepository
-                .findAllByCustomerId(userId);
-
-        // Sort by created date descending and limit
-        return allTransactions.stream()
-                .sorted((t1, t2) -> t2.getCreatedAt().compareTo(t1.getCreatedAt()))
-                .limit(limit)
-                .collect(Collectors.toList());
+    public List<PaymentTransactionSummaryDTO> getRecentUserTransactions(String userId, int limit) {
+        return paymentTransactionRepository.findFirstKeysetPage(userId, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Get user transactions page by page using a (createdAt, id) cursor, newest first.
+     * Every page is an index range scan, however deep.
+     */
+    public CursorPage<PaymentTransactionSummaryDTO> getUserTransactionsByCursor(String userId, String cursor, int size) {
+        PageRequest limit = PageRequest.of(0, size);
+        List<PaymentTransactionSummaryDTO> transactions;
+        if (cursor == null || cursor.isBlank()) {
+            transactions = paymentTransactionRepository.findFirstKeysetPage(userId, limit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            transactions = paymentTransactionRepository.findKeysetPageAfter(
+                    userId, position.createdAt(), position.id(), limit);
+        }
+
+        String nextCursor = null;
+        if (transactions.size() == size) {
+            PaymentTransactionSummaryDTO last = transactions.get(transactions.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(transactions, transactions.size(), nextCursor);
     }
 
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,49 @@
+package com.example.walletmicroservice.service;
+
+import com.example.walletmicroservice.util.HmacSha256Verifier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Razorpay signature checks backed by pre-initialised per-thread HMAC engines.
+ */
+@Component
+@Slf4j
+public class SignatureVerifier {
+
+    private final HmacSha256Verifier paymentSignatureVerifier;
+    private final HmacSha256Verifier webhookSignatureVerifier;
+
+    public SignatureVerifier(@Value("${razorpay.key.secret}") String razorpayKeySecret,
+                             @Value("${razorpay.webhook.secret}") String webhookSecret) {
+        this.paymentSignatureVerifier = new HmacSha256Verifier(razorpayKeySecret);
+        this.webhookSignatureVerifier = new HmacSha256Verifier(webhookSecret);
+    }
+
+    /**
+     * Checkout signature: hex HMAC-SHA256 of "orderId|paymentId" keyed with the API secret.
+     */
+    public boolean verifyPaymentSignature(String orderId, String paymentId, String signature) {
+        try {
+            return paymentSignatureVerifier.verifyHex(signature, orderId, "|", paymentId);
+        } catch (Exception e) {
+            log.error("Signature verification failed", e);
+            return false;
+        }
+    }
+
+    /**
+     * Webhook signature: HMAC-SHA256 of the raw body keyed with the webhook secret.
+     * Razorpay sends it hex encoded; Base64 is still accepted for existing senders.
+     */
+    public boolean verifyWebhookSignature(String payload, String signature) {
+        try {
+            return webhookSignatureVerifier.verifyHex(signature, payload)
+                    || webhookSignatureVerifier.verifyBase64(signature, payload);
+        } catch (Exception e) {
+            log.error("Webhook signature verification failed", e);
+            return false;
+        }
+    }
+}
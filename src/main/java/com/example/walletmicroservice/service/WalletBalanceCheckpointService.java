@@ -0,0 +1,175 @@
+package com.example.walletmicroservice.service;
+
+import com.example.walletmicroservice.entity.GeneralLedger;
+import com.example.walletmicroservice.entity.WalletBalance;
+import com.example.walletmicroservice.entity.WalletBalanceCheckpoint;
+import com.example.walletmicroservice.repository.GeneralLedgerRepository;
+import com.example.walletmicroservice.repository.WalletBalanceCheckpointRepository;
+import com.example.walletmicroservice.repository.WalletBalanceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.example.walletmicroservice.service.WalletBalanceService.WALLET_LEDGER;
+
+/**
+ * Wallet balances computed straight from general_ledger as checkpoint + delta: a per-customer
+ * checkpoint holds the sum of all rows created before its watermark, and a read only sums the
+ * customer's rows created since. A background compactor keeps advancing the watermarks.
+ *
+ * Watermarks are created_at timestamps rather than ledger ids - pooled sequence ids are not
+ * assigned in commit order across nodes. The compactor stays {@code safety-lag} behind now so
+ * every row below a watermark has committed before the checkpoint covers it. created_at is
+ * stamped from the clock of the node that inserts the row, and the watermark from the clock of
+ * the node compacting, so this assumes node clocks (NTP-synced) differ by much less than the
+ * safety lag, less the longest ledger transaction. A row committed below a watermark that
+ * already covers it would be missing from the ledger balance; the drift check below reports it.
+ *
+ * The materialized wallet_balances row ({@link WalletBalanceService}) is the authoritative
+ * balance: it is what withdrawals are approved against and what GET /wallet/balance returns.
+ * The figure computed here comes from the ledger alone, so after advancing a checkpoint the
+ * compactor compares the two and logs any customer whose materialized balance has drifted;
+ * {@link WalletBalanceService#rebuild(String)} corrects it.
+ */
+@Service
+@Slf4j
+public class WalletBalanceCheckpointService {
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final WalletBalanceCheckpointRepository checkpointRepository;
+    private final GeneralLedgerRepository generalLedgerRepository;
+    private final WalletBalanceRepository walletBalanceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration safetyLag;
+
+    // Upper bound of the previous compaction; only customers with postings after it need advancing.
+    // Null until the first run, which resumes from the checkpoints already stored
+    private volatile LocalDateTime lastWatermark;
+
+    public WalletBalanceCheckpointService(WalletBalanceCheckpointRepository checkpointRepository,
+                                          GeneralLedgerRepository generalLedgerRepository,
+                                          WalletBalanceRepository walletBalanceRepository,
+                                          TransactionTemplate transactionTemplate,
+                                          @Value("${app.wallet.checkpoint.safety-lag-seconds:300}") long safetyLagSeconds) {
+        this.checkpointRepository = checkpointRepository;
+        this.generalLedgerRepository = generalLedgerRepository;
+        this.walletBalanceRepository = walletBalanceRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.safetyLag = Duration.ofSeconds(safetyLagSeconds);
+    }
+
+    public BigDecimal getBalance(String customerId) {
+        WalletBalanceCheckpoint checkpoint = checkpointRepository
+                .findByCustomerIdAndLedgerType(customerId, WALLET_LEDGER)
+                .orElse(null);
+
+        BigDecimal base = checkpoint != null ? checkpoint.getBalance() : BigDecimal.ZERO;
+        LocalDateTime asOf = checkpoint != null ? checkpoint.getAsOf() : BEGINNING;
+
+        return base.add(generalLedgerRepository.sumNetBalanceSince(
+                customerId, WALLET_LEDGER, GeneralLedger.EntryType.CREDIT, asOf));
+    }
+
+    @Scheduled(fixedDelayString = "${app.wallet.checkpoint.interval-ms:60000}",
+            initialDelayString = "${app.wallet.checkpoint.interval-ms:60000}")
+    public void compact() {
+        LocalDateTime watermark = LocalDateTime.now().minus(safetyLag);
+        LocalDateTime from = lastWatermark != null ? lastWatermark : resumeWatermark();
+        if (!watermark.isAfter(from)) {
+            return;
+        }
+
+        List<String> customerIds = generalLedgerRepository
+                .findCustomerIdsWithPostingsBetween(WALLET_LEDGER, from, watermark);
+
+        int advanced = 0;
+        int drifted = 0;
+        for (String customerId : customerIds) {
+            try {
+                advance(customerId, watermark);
+                advanced++;
+                if (!matchesMaterializedBalance(customerId)) {
+                    drifted++;
+                }
+            } catch (RuntimeException e) {
+                // Leave lastWatermark alone so the customer is picked up again next run
+                log.error("Failed to advance wallet balance checkpoint for {}", customerId, e);
+                return;
+            }
+        }
+
+        lastWatermark = watermark;
+        if (advanced > 0) {
+            log.info("Advanced {} wallet balance checkpoints to {}", advanced, watermark);
+        }
+        if (drifted > 0) {
+            log.warn("{} materialized wallet balances differ from the ledger; run POST /api/v1/wallet/balance/rebuild",
+                    drifted);
+        }
+    }
+
+    /**
+     * Watermark to resume from after a restart: the latest checkpoint, i.e. where the last
+     * completed compaction (on any node) stopped. If a run failed part way, customers it did
+     * not reach keep their older checkpoint; reads stay exact because they sum from each
+     * customer's own as_of, and the customer is advanced again with its next posting.
+     */
+    private LocalDateTime resumeWatermark() {
+        LocalDateTime latest = checkpointRepository.findLatestAsOf(WALLET_LEDGER).orElse(BEGINNING);
+        lastWatermark = latest;
+        return latest;
+    }
+
+    /**
+     * Fold the customer's rows created in [checkpoint.asOf, watermark) into the checkpoint.
+     * The checkpoint row is locked, so nodes compacting concurrently cannot double count.
+     */
+    public void advance(String customerId, LocalDateTime watermark) {
+        transactionTemplate.executeWithoutResult(status -> {
+            checkpointRepository.createIfAbsent(customerId, WALLET_LEDGER, BEGINNING);
+            WalletBalanceCheckpoint checkpoint = checkpointRepository.findForUpdate(customerId, WALLET_LEDGER)
+                    .orElseThrow(() -> new RuntimeException("Wallet balance checkpoint not found: " + customerId));
+
+            if (!watermark.isAfter(checkpoint.getAsOf())) {
+                return;
+            }
+
+            BigDecimal delta = generalLedgerRepository.sumNetBalanceBetween(
+                    customerId, WALLET_LEDGER, GeneralLedger.EntryType.CREDIT, checkpoint.getAsOf(), watermark);
+            checkpoint.setBalance(checkpoint.getBalance().add(delta));
+            checkpoint.setAsOf(watermark);
+            checkpointRepository.save(checkpoint);
+        });
+    }
+
+    /**
+     * Compare the ledger balance (checkpoint + rows since) with the materialized wallet_balances
+     * row. Both are read in one transaction, so they see the same committed postings.
+     *
+     * @return false, after logging both values, if they differ
+     */
+    public boolean matchesMaterializedBalance(String customerId) {
+        Boolean matches = transactionTemplate.execute(status -> {
+            BigDecimal ledger = getBalance(customerId);
+            BigDecimal materialized = walletBalanceRepository
+                    .findByCustomerIdAndLedgerType(customerId, WALLET_LEDGER)
+                    .map(WalletBalance::getBalance)
+                    .orElse(BigDecimal.ZERO);
+            if (materialized.compareTo(ledger) == 0) {
+                return true;
+            }
+
+            log.warn("Wallet balance drift for {}: stored={}, ledger={}", customerId, materialized, ledger);
+            return false;
+        });
+        return Boolean.TRUE.equals(matches);
+    }
+}
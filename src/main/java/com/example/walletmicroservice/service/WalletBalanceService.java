@@ -0,0 +1,168 @@
+package com.example.walletmicroservice.service;
+
+import com.example.walletmicroservice.entity.ChartOfAccounts;
+import com.example.walletmicroservice.entity.GeneralLedger;
+import com.example.walletmicroservice.entity.WalletBalance;
+import com.example.walletmicroservice.repository.GeneralLedgerRepository;
+import com.example.walletmicroservice.repository.WalletBalanceRepository;
+import com.example.walletmicroservice.util.StripedLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Materialized wallet balances. Every ledger posting that touches a WALLET account
+ * adjusts wallet_balances in the same transaction (see {@link LedgerPostingWriter}),
+ * so reading a balance is a single-row lookup instead of a SUM over the customer's history.
+ */
+@Service
+@Slf4j
+public class WalletBalanceService {
+
+    public static final String WALLET_LEDGER = ChartOfAccounts.LedgerType.WALLET.name();
+
+    private final WalletBalanceRepository walletBalanceRepository;
+    private final GeneralLedgerRepository generalLedgerRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Serializes wallet debits per customer on this node; the balance row lock covers other nodes
+    private final StripedLock customerLocks;
+    private final long lockTimeoutMs;
+
+    public WalletBalanceService(WalletBalanceRepository walletBalanceRepository,
+                                GeneralLedgerRepository generalLedgerRepository,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${app.wallet.lock.stripes:1024}") int lockStripes,
+                                @Value("${app.wallet.lock.timeout-ms:5000}") long lockTimeoutMs) {
+        this.walletBalanceRepository = walletBalanceRepository;
+        this.generalLedgerRepository = generalLedgerRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.customerLocks = new StripedLock(lockStripes);
+        this.lockTimeoutMs = lockTimeoutMs;
+    }
+
+    public record RebuildResult(int customers, int corrected) {
+    }
+
+    public BigDecimal getBalance(String customerId) {
+        return walletBalanceRepository.findByCustomerIdAndLedgerType(customerId, WALLET_LEDGER)
+                .map(WalletBalance::getBalance)
+                .orElse(BigDecimal.ZERO);
+    }
+
+    /**
+     * Run a posting that takes {@code amount} out of the customer's wallet, but only if the
+     * balance covers it. Debits for one customer run one at a time: first on a lock stripe
+     * in this JVM, then on the wallet_balances row (SELECT ... FOR UPDATE) across nodes.
+     * The posting runs in the same transaction, so the balance it reduces stays locked
+     * until it commits. Debits for different customers do not wait on each other.
+     */
+    public void debit(String customerId, BigDecimal amount, Runnable posting) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new RuntimeException("Withdrawal amount must be positive");
+        }
+
+        Lock lock = customerLocks.get(customerId);
+        try {
+            if (!lock.tryLock(lockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("Wallet is busy, please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for wallet lock", e);
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                BigDecimal balance = walletBalanceRepository.findForUpdate(customerId, WALLET_LEDGER)
+                        .map(WalletBalance::getBalance)
+                        .orElse(BigDecimal.ZERO);
+                if (balance.compareTo(amount) < 0) {
+                    throw new RuntimeException("Insufficient wallet balance");
+                }
+                posting.run();
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Apply the wallet lines of ledger entries being written. Must be called inside the
+     * transaction that inserts those entries.
+     */
+    public void applyPostings(List<GeneralLedger> lines) {
+        // Sorted so concurrent batches always lock balance rows in the same order
+        Map<String, BigDecimal> deltas = new TreeMap<>();
+        for (GeneralLedger line : lines) {
+            if (!WALLET_LEDGER.equals(line.getLedgerType())) {
+                continue;
+            }
+            // Wallet accounts are liabilities: credits add to the balance, debits reduce it
+            BigDecimal delta = line.getEntryType() == GeneralLedger.EntryType.CREDIT
+                    ? line.getAmount() : line.getAmount().negate();
+            deltas.merge(line.getCustomerId(), delta, BigDecimal::add);
+        }
+
+        deltas.forEach((customerId, delta) -> {
+            if (delta.signum() != 0) {
+                walletBalanceRepository.addToBalance(customerId, WALLET_LEDGER, delta);
+            }
+        });
+    }
+
+    /**
+     * Recompute every wallet balance from general_ledger, one customer per transaction.
+     */
+    public RebuildResult rebuild() {
+        Set<String> customerIds = new TreeSet<>(generalLedgerRepository.findCustomerIdsByLedgerType(WALLET_LEDGER));
+        customerIds.addAll(walletBalanceRepository.findCustomerIdsByLedgerType(WALLET_LEDGER));
+
+        int corrected = 0;
+        for (String customerId : customerIds) {
+            if (rebuild(customerId)) {
+                corrected++;
+            }
+        }
+
+        log.info("Wallet balances rebuilt: customers={}, corrected={}", customerIds.size(), corrected);
+        return new RebuildResult(customerIds.size(), corrected);
+    }
+
+    /**
+     * Recompute one customer's balance. The balance row is locked before the ledger is
+     * summed, so postings that commit meanwhile are applied on top of the new value.
+     *
+     * @return true if the stored balance was wrong
+     */
+    public boolean rebuild(String customerId) {
+        Boolean corrected = transactionTemplate.execute(status -> {
+            walletBalanceRepository.addToBalance(customerId, WALLET_LEDGER, BigDecimal.ZERO);
+            WalletBalance balance = walletBalanceRepository.findForUpdate(customerId, WALLET_LEDGER)
+                    .orElseThrow(() -> new RuntimeException("Wallet balance not found: " + customerId));
+
+            BigDecimal actual = generalLedgerRepository.sumNetBalance(
+                    customerId, WALLET_LEDGER, GeneralLedger.EntryType.CREDIT);
+            if (balance.getBalance().compareTo(actual) == 0) {
+                return false;
+            }
+
+            log.warn("Correcting wallet balance for {}: stored={}, ledger={}",
+                    customerId, balance.getBalance(), actual);
+            balance.setBalance(actual);
+            walletBalanceRepository.save(balance);
+            return true;
+        });
+        return Boolean.TRUE.equals(corrected);
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.walletmicroservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Recognises redelivered Razorpay webhooks. The idempotency key is the Razorpay event id
+ * plus the id of the entity the event is about; a bounded set of recently seen keys answers
+ * most duplicates in memory, and the unique dedup_key column on webhook_inbox catches the rest.
+ */
+@Component
+public class WebhookDeduplicator {
+
+    private static final String[] ENTITY_TYPES = {"payment", "refund", "payout", "order"};
+
+    private final Map<String, Boolean> recentKeys;
+
+    private final Counter received;
+    private final Counter duplicatesInMemory;
+    private final Counter duplicatesInDatabase;
+
+    public WebhookDeduplicator(@Value("${app.webhook.dedup.recent-keys:50000}") int recentKeyCapacity,
+                               MeterRegistry meterRegistry) {
+        this.recentKeys = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > recentKeyCapacity;
+            }
+        };
+
+        this.received = Counter.builder("webhook.events.received")
+                .description("Webhooks received with a valid signature")
+                .register(meterRegistry);
+        this.duplicatesInMemory = Counter.builder("webhook.events.duplicate")
+                .tag("source", "memory")
+                .description("Redelivered webhooks dropped before processing")
+                .register(meterRegistry);
+        this.duplicatesInDatabase = Counter.builder("webhook.events.duplicate")
+                .tag("source", "database")
+                .description("Redelivered webhooks dropped before processing")
+                .register(meterRegistry);
+        Gauge.builder("webhook.events.duplicate.ratio", this, WebhookDeduplicator::duplicateRatio)
+                .description("Share of received webhooks that were duplicates")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Build the idempotency key, or null when the event cannot be identified.
+     * Falls back to the event type when Razorpay did not send an event id header.
+     */
+    public String dedupKey(String eventId, JSONObject webhookPayload) {
+        String entityId = entityId(webhookPayload);
+        if (entityId == null) {
+            return null;
+        }
+        String eventPart = eventId != null && !eventId.isBlank()
+                ? eventId
+                : webhookPayload.optString("event", null);
+        return eventPart != null ? eventPart + ":" + entityId : null;
+    }
+
+    /**
+     * Record that a webhook arrived; returns true if its key was seen recently.
+     */
+    public boolean seenRecently(String key) {
+        received.increment();
+        if (key == null) {
+            return false;
+        }
+
+        synchronized (recentKeys) {
+            if (recentKeys.containsKey(key)) {
+                duplicatesInMemory.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void remember(String key) {
+        if (key == null) {
+            return;
+        }
+        synchronized (recentKeys) {
+            recentKeys.put(key, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Stop treating the key as seen, e.g. after its inbox entry failed permanently.
+     */
+    public void forget(String key) {
+        if (key == null) {
+            return;
+        }
+        synchronized (recentKeys) {
+            recentKeys.remove(key);
+        }
+    }
+
+    /**
+     * The unique key on webhook_inbox rejected the insert - another delivery (possibly on
+     * another node) got there first.
+     */
+    public void duplicateInDatabase(String key) {
+        duplicatesInDatabase.increment();
+        remember(key);
+    }
+
+    private double duplicateRatio() {
+        double total = received.count();
+        return total == 0 ? 0 : (duplicatesInMemory.count() + duplicatesInDatabase.count()) / total;
+    }
+
+    private String entityId(JSONObject webhookPayload) {
+        JSONObject payload = webhookPayload.optJSONObject("payload");
+        if (payload == null) {
+            return null;
+        }
+
+        JSONArray contains = webhookPayload.optJSONArray("contains");
+        if (contains != null) {
+            for (int i = 0; i < contains.length(); i++) {
+                String id = entityId(payload, contains.optString(i));
+                if (id != null) {
+                    return id;
+                }
+            }
+        }
+
+        for (String type : ENTITY_TYPES) {
+            String id = entityId(payload, type);
+            if (id != null) {
+                return id;
+            }
+        }
+        return null;
+    }
+
+    private String entityId(JSONObject payload, String type) {
+        JSONObject wrapper = payload.optJSONObject(type);
+        if (wrapper == null) {
+            return null;
+        }
+        // Razorpay nests the entity under "entity"; older payloads have it inline
+        JSONObject entity = wrapper.optJSONObject("entity");
+        String id = (entity != null ? entity : wrapper).optString("id", null);
+        return id == null || id.isEmpty() ? null : id;
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.walletmicroservice.service;
+
+import com.example.walletmicroservice.entity.WebhookInbox;
+import com.example.walletmicroservice.repository.WebhookInboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable webhook inbox. The webhook endpoint calls {@link #enqueue} which only stores the
+ * raw body; a bounded worker pool drains the inbox into {@link RazorpayService#handleWebhook}.
+ * Entries are handed to the workers right after they are stored, and a poller picks up
+ * anything left behind (retries, full queue, restarts, other nodes).
+ *
+ * An entry that still fails after max-attempts is marked FAILED and gives up its dedup key,
+ * so a later redelivery from Razorpay is stored and processed as a new entry. Admins can also
+ * put a FAILED entry back in the queue with {@link #requeue}.
+ */
+@Service
+@Slf4j
+public class WebhookInboxService {
+
+    private final WebhookInboxRepository inboxRepository;
+    private final RazorpayService razorpayService;
+    private final WebhookDeduplicator webhookDeduplicator;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final long stuckTimeoutMs;
+
+    private final ThreadPoolExecutor workers;
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private final AtomicLong backlog = new AtomicLong();
+
+    private final Counter processed;
+    private final Counter retried;
+    private final Counter failed;
+    private final Timer processingLag;
+
+    public WebhookInboxService(WebhookInboxRepository inboxRepository,
+                               RazorpayService razorpayService,
+                               WebhookDeduplicator webhookDeduplicator,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.webhook.inbox.workers:4}") int workerCount,
+                               @Value("${app.webhook.inbox.queue-capacity:1000}") int queueCapacity,
+                               @Value("${app.webhook.inbox.batch-size:100}") int batchSize,
+                               @Value("${app.webhook.inbox.max-attempts:5}") int maxAttempts,
+                               @Value("${app.webhook.inbox.retry-backoff-ms:30000}") long retryBackoffMs,
+                               @Value("${app.webhook.inbox.stuck-timeout-ms:300000}") long stuckTimeoutMs) {
+        this.inboxRepository = inboxRepository;
+        this.razorpayService = razorpayService;
+        this.webhookDeduplicator = webhookDeduplicator;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.stuckTimeoutMs = stuckTimeoutMs;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "webhook-worker-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.processed = Counter.builder("webhook.inbox.processed").tag("result", "success")
+                .description("Webhook inbox entries processed").register(meterRegistry);
+        this.retried = Counter.builder("webhook.inbox.processed").tag("result", "retry")
+                .description("Webhook inbox entries processed").register(meterRegistry);
+        this.failed = Counter.builder("webhook.inbox.processed").tag("result", "failed")
+                .description("Webhook inbox entries processed").register(meterRegistry);
+        this.processingLag = Timer.builder("webhook.inbox.lag")
+                .description("Time from webhook receipt to successful processing")
+                .register(meterRegistry);
+        Gauge.builder("webhook.inbox.backlog", backlog, AtomicLong::get)
+                .description("Pending webhook inbox entries (as of the last poll)")
+                .register(meterRegistry);
+        Gauge.builder("webhook.inbox.queue.size", workers, executor -> executor.getQueue().size())
+                .description("Inbox entries handed to workers but not yet started")
+                .register(meterRegistry);
+        Gauge.builder("webhook.inbox.workers.active", workers, ThreadPoolExecutor::getActiveCount)
+                .description("Workers currently processing a webhook")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Persist a verified webhook body and hand it to the workers.
+     * Redeliveries of an event already in the inbox are dropped and null is returned.
+     */
+    public WebhookInbox enqueue(String payload, String eventId) {
+        JSONObject webhookPayload = new JSONObject(payload);
+        String dedupKey = webhookDeduplicator.dedupKey(eventId, webhookPayload);
+
+        if (webhookDeduplicator.seenRecently(dedupKey)) {
+            log.info("Dropping duplicate webhook {}", dedupKey);
+            return null;
+        }
+
+        WebhookInbox entry = new WebhookInbox();
+        entry.setEventId(eventId);
+        entry.setDedupKey(dedupKey);
+        entry.setEventType(webhookPayload.optString("event", null));
+        entry.setPayload(payload);
+        entry.setStatus(WebhookInbox.Status.PENDING);
+        entry.setNextAttemptAt(LocalDateTime.now());
+
+        WebhookInbox saved;
+        try {
+            saved = inboxRepository.saveAndFlush(entry);
+        } catch (DataIntegrityViolationException e) {
+            webhookDeduplicator.duplicateInDatabase(dedupKey);
+            log.info("Dropping duplicate webhook {} (already in inbox)", dedupKey);
+            return null;
+        }
+
+        webhookDeduplicator.remember(dedupKey);
+        dispatch(saved.getId());
+        return saved;
+    }
+
+    @Scheduled(fixedDelayString = "${app.webhook.inbox.poll-interval-ms:1000}")
+    public void pollInbox() {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status ->
+                inboxRepository.releaseStuck(WebhookInbox.Status.PROCESSING, WebhookInbox.Status.PENDING,
+                        now.minus(Duration.ofMillis(stuckTimeoutMs)), now));
+
+        backlog.set(inboxRepository.countByStatus(WebhookInbox.Status.PENDING));
+
+        int capacity = workers.getQueue().remainingCapacity();
+        if (capacity == 0) {
+            return;
+        }
+
+        List<Long> readyIds = inboxRepository.findReadyIds(WebhookInbox.Status.PENDING, now,
+                PageRequest.of(0, Math.min(batchSize, capacity)));
+        for (Long id : readyIds) {
+            dispatch(id);
+        }
+    }
+
+    private void dispatch(Long id) {
+        if (!queued.add(id)) {
+            return;
+        }
+        try {
+            workers.execute(() -> process(id));
+        } catch (RejectedExecutionException e) {
+            // Queue is full - the entry stays PENDING and the poller will pick it up
+            queued.remove(id);
+        }
+    }
+
+    // Package-private so tests can run an entry without the worker pool
+    void process(Long id) {
+        queued.remove(id);
+
+        Boolean claimed = transactionTemplate.execute(status -> inboxRepository.claim(
+                id, WebhookInbox.Status.PENDING, WebhookInbox.Status.PROCESSING, LocalDateTime.now()) == 1);
+        if (!Boolean.TRUE.equals(claimed)) {
+            return;
+        }
+
+        WebhookInbox entry = inboxRepository.findById(id).orElse(null);
+        if (entry == null) {
+            return;
+        }
+
+        try {
+            // handleWebhook joins this transaction, so its changes and PROCESSED commit together;
+            // a crash in between can no longer apply the same event twice
+            transactionTemplate.executeWithoutResult(status -> {
+                razorpayService.handleWebhook(new JSONObject(entry.getPayload()));
+
+                entry.setStatus(WebhookInbox.Status.PROCESSED);
+                entry.setProcessedAt(LocalDateTime.now());
+                entry.setLastError(null);
+                inboxRepository.save(entry);
+            });
+
+            processed.increment();
+            processingLag.record(Duration.between(entry.getReceivedAt(), entry.getProcessedAt()));
+        } catch (Exception e) {
+            handleFailure(entry, e);
+        }
+    }
+
+    private void handleFailure(WebhookInbox entry, Exception e) {
+        entry.setProcessedAt(null);
+        entry.setLastError(e.getMessage());
+
+        if (entry.getAttempts() >= maxAttempts) {
+            entry.setStatus(WebhookInbox.Status.FAILED);
+            // Release the key so a redelivery of this event is not dropped as a duplicate
+            String dedupKey = entry.getDedupKey();
+            entry.setDedupKey(null);
+            webhookDeduplicator.forget(dedupKey);
+            failed.increment();
+            log.error("Webhook inbox entry {} ({}) failed permanently after {} attempts, released dedup key {}",
+                    entry.getId(), entry.getEventType(), entry.getAttempts(), dedupKey, e);
+        } else {
+            entry.setStatus(WebhookInbox.Status.PENDING);
+            entry.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(retryBackoffMs * entry.getAttempts())));
+            retried.increment();
+            log.warn("Webhook inbox entry {} ({}) failed on attempt {}, will retry: {}",
+                    entry.getId(), entry.getEventType(), entry.getAttempts(), e.getMessage());
+        }
+
+        inboxRepository.save(entry);
+    }
+
+    /**
+     * Put a FAILED entry back in the queue with a fresh set of attempts.
+     * Its dedup key was released when it failed, so check that Razorpay has not redelivered
+     * the event as a new entry in the meantime.
+     *
+     * @return false if there is no FAILED entry with this id
+     */
+    public boolean requeue(Long id) {
+        Boolean requeued = transactionTemplate.execute(status -> {
+            WebhookInbox entry = inboxRepository.findById(id).orElse(null);
+            if (entry == null || entry.getStatus() != WebhookInbox.Status.FAILED) {
+                return false;
+            }
+            entry.setStatus(WebhookInbox.Status.PENDING);
+            entry.setAttempts(0);
+            entry.setNextAttemptAt(LocalDateTime.now());
+            inboxRepository.save(entry);
+            return true;
+        });
+        if (!Boolean.TRUE.equals(requeued)) {
+            return false;
+        }
+
+        log.info("Webhook inbox entry {} requeued", id);
+        dispatch(id);
+        return true;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.walletmicroservice.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+/**
+ * HMAC-SHA256 signature check that reuses one initialized {@link Mac} and scratch
+ * buffers per thread. The expected signature (hex or Base64) is decoded into a byte
+ * buffer and compared in constant time, so a verification of ASCII input allocates nothing.
+ */
+public final class HmacSha256Verifier {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 32;
+    private static final int SCRATCH_SIZE = 512;
+
+    private final ThreadLocal<State> state;
+
+    public HmacSha256Verifier(String secret) {
+        SecretKeySpec key = new SecretKeySpec(secret.trim().getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.state = ThreadLocal.withInitial(() -> new State(key));
+        state.get(); // fail fast on an unusable key
+    }
+
+    /**
+     * Verify a signature over the concatenation of the given parts.
+     */
+    public boolean verifyHex(String signature, String... parts) {
+        State s = state.get();
+        return decodeHex(signature, s.expected) && matches(s, parts);
+    }
+
+    public boolean verifyBase64(String signature, String... parts) {
+        State s = state.get();
+        return decodeBase64(signature, s.expected) && matches(s, parts);
+    }
+
+    private boolean matches(State s, String... parts) {
+        Mac mac = s.mac;
+        mac.reset();
+        for (String part : parts) {
+            update(s, part);
+        }
+        try {
+            mac.doFinal(s.computed, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC computation failed", e);
+        }
+        return MessageDigest.isEqual(s.computed, s.expected);
+    }
+
+    private void update(State s, String value) {
+        byte[] scratch = s.scratch;
+        int length = value.length();
+        int start = 0;
+
+        while (start < length) {
+            int end = Math.min(start + scratch.length, length);
+            for (int i = start; i < end; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    // Non-ASCII input: fall back to a regular UTF-8 encode of the remainder
+                    s.mac.update(scratch, 0, i - start);
+                    s.mac.update(value.substring(i).getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+                scratch[i - start] = (byte) c;
+            }
+            s.mac.update(scratch, 0, end - start);
+            start = end;
+        }
+    }
+
+    // ============ SIGNATURE DECODING ============
+
+    private static boolean decodeHex(String signature, byte[] out) {
+        if (signature == null) {
+            return false;
+        }
+        int start = firstNonBlank(signature);
+        int end = lastNonBlank(signature);
+        if (end - start != MAC_LENGTH * 2) {
+            return false;
+        }
+
+        for (int i = 0; i < MAC_LENGTH; i++) {
+            int high = Character.digit(signature.charAt(start + 2 * i), 16);
+            int low = Character.digit(signature.charAt(start + 2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                return false;
+            }
+            out[i] = (byte) ((high << 4) | low);
+        }
+        return true;
+    }
+
+    private static boolean decodeBase64(String signature, byte[] out) {
+        if (signature == null) {
+            return false;
+        }
+        int start = firstNonBlank(signature);
+        int end = lastNonBlank(signature);
+        // 32 bytes -> 43 Base64 characters plus one '=' of padding
+        if (end - start != 44 || signature.charAt(end - 1) != '=') {
+            return false;
+        }
+
+        int buffer = 0;
+        int bits = 0;
+        int written = 0;
+        for (int i = start; i < end - 1; i++) {
+            int value = base64Value(signature.charAt(i));
+            if (value < 0) {
+                return false;
+            }
+            buffer = (buffer << 6) | value;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                out[written++] = (byte) (buffer >> bits);
+            }
+        }
+        return written == MAC_LENGTH;
+    }
+
+    private static int base64Value(char c) {
+        if (c >= 'A' && c <= 'Z') return c - 'A';
+        if (c >= 'a' && c <= 'z') return c - 'a' + 26;
+        if (c >= '0' && c <= '9') return c - '0' + 52;
+        if (c == '+') return 62;
+        if (c == '/') return 63;
+        return -1;
+    }
+
+    private static int firstNonBlank(String value) {
+        int i = 0;
+        while (i < value.length() && Character.isWhitespace(value.charAt(i))) i++;
+        return i;
+    }
+
+    private static int lastNonBlank(String value) {
+        int i = value.length();
+        while (i > 0 && Character.isWhitespace(value.charAt(i - 1))) i--;
+        return i;
+    }
+
+    private static final class State {
+        private final Mac mac;
+        private final byte[] computed = new byte[MAC_LENGTH];
+        private final byte[] expected = new byte[MAC_LENGTH];
+        private final byte[] scratch = new byte[SCRATCH_SIZE];
+
+        private State(SecretKeySpec key) {
+            try {
+                this.mac = Mac.getInstance(ALGORITHM);
+                this.mac.init(key);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Unable to initialise " + ALGORITHM, e);
+            }
+        }
+    }
+}
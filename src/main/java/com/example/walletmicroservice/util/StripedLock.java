@@ -0,0 +1,34 @@
+package com.example.walletmicroservice.util;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks shared out by key hash. Calls for the same key always get the same
+ * lock; different keys only contend when they land on the same stripe.
+ */
+public class StripedLock {
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    public StripedLock(int stripes) {
+        // Round up to a power of two so the stripe is a mask, not a modulo
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public Lock get(Object key) {
+        int hash = key.hashCode();
+        // Spread the high bits down, like HashMap does
+        return locks[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    public int size() {
+        return locks.length;
+    }
+}
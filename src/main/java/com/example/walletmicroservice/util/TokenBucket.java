@@ -0,0 +1,107 @@
+package com.example.walletmicroservice.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket refilled at a fixed rate up to {@code burst} tokens. A caller that finds the
+ * bucket empty reserves the next token and sleeps until it is due, so waiting callers are
+ * served in arrival order; callers whose token would not be due before their deadline are
+ * turned away without consuming one.
+ */
+public class TokenBucket {
+
+    private final double burst;
+    private final double nanosPerToken;
+
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+
+    public TokenBucket(double ratePerSecond, int burst) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("rate and burst must be positive");
+        }
+        this.burst = burst;
+        this.nanosPerToken = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+        this.pausedUntil = lastRefill;
+    }
+
+    /**
+     * Take one token, waiting for it until {@code deadline} (a System.nanoTime() value).
+     *
+     * @return false if no token could be had before the deadline
+     */
+    public boolean acquire(long deadline) throws InterruptedException {
+        long wait = reserve(deadline);
+        if (wait < 0) {
+            return false;
+        }
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                refund();
+                throw e;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Give back a token taken by {@link #acquire} for a call that was never made, e.g. because
+     * the caller then timed out waiting for a concurrency permit.
+     */
+    public synchronized void refund() {
+        refill(System.nanoTime());
+        tokens = Math.min(burst, tokens + 1);
+    }
+
+    /**
+     * Hand out no tokens for the given time, e.g. after the server answered with Retry-After.
+     */
+    public synchronized void pause(long nanos) {
+        long now = System.nanoTime();
+        refill(now);
+        tokens = Math.min(tokens, 0);
+        pausedUntil = Math.max(pausedUntil, now + nanos);
+    }
+
+    /**
+     * Nanoseconds until a token would be available to a caller arriving now.
+     */
+    public synchronized long nanosUntilAvailable() {
+        long now = System.nanoTime();
+        refill(now);
+        return waitFor(now);
+    }
+
+    // Nanos to wait for the reserved token, or -1 if that would pass the deadline
+    private synchronized long reserve(long deadline) {
+        long now = System.nanoTime();
+        refill(now);
+        long wait = waitFor(now);
+        // A token free right now is handed out even to a caller whose deadline has just passed
+        if (wait > 0 && now + wait - deadline > 0) {
+            return -1;
+        }
+        tokens -= 1; // may go negative: the debt is the queue of callers already waiting
+        return wait;
+    }
+
+    private long waitFor(long now) {
+        // Nothing refills while paused, so the refill time starts counting once the pause ends
+        long pauseLeft = Math.max(0, pausedUntil - now);
+        long untilRefilled = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) * nanosPerToken);
+        return pauseLeft + untilRefilled;
+    }
+
+    private void refill(long now) {
+        long from = Math.max(lastRefill, pausedUntil);
+        if (now > from) {
+            tokens = Math.min(burst, tokens + (now - from) / nanosPerToken);
+        }
+        lastRefill = Math.max(lastRefill, now);
+    }
+}
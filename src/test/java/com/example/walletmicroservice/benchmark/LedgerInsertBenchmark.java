@@ -0,0 +1,129 @@
+package com.example.walletmicroservice.benchmark;
+
+import com.example.walletmicroservice.entity.GeneralLedger;
+import com.example.walletmicroservice.entity.PaymentTransaction;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts/sec for GeneralLedger and PaymentTransaction rows written the way LedgerService does
+ * it: one PAYIN transaction plus its debit/credit pair, 25 of them per database transaction,
+ * with hibernate.jdbc.batch_size=25 and order_inserts as in application.properties.
+ * IDENTITY loads benchmark/identity-ids.orm.xml to put back the ids the entities had before
+ * the pooled sequences, which makes Hibernate execute each insert on its own; POOLED_SEQUENCE uses the
+ * entities' *_seq generators as mapped. The JDBC statement count per row is printed after
+ * each trial. H2 in MySQL mode with the MySQLDialect stands in for the real database. Run as
+ * described in {@link SignatureVerificationBenchmark}, e.g. {@code org.openjdk.jmh.Main LedgerInsert}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LedgerInsertBenchmark {
+
+    private static final int TRANSACTIONS_PER_COMMIT = 25;
+    // One payment transaction and two ledger entries each
+    private static final int ROWS_PER_COMMIT = TRANSACTIONS_PER_COMMIT * 3;
+
+    public enum IdStrategy { IDENTITY, POOLED_SEQUENCE }
+
+    @Param({"IDENTITY", "POOLED_SEQUENCE"})
+    IdStrategy ids;
+
+    private SessionFactory sessionFactory;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Configuration configuration = new Configuration()
+                .setProperty(AvailableSettings.URL,
+                        "jdbc:h2:mem:ledger_" + ids + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.USER, "sa")
+                .setProperty(AvailableSettings.PASS, "")
+                .setProperty(AvailableSettings.DIALECT, "org.hibernate.dialect.MySQLDialect")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "25")
+                .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+                .setProperty(AvailableSettings.GENERATE_STATISTICS, "true")
+                .setProperty(AvailableSettings.LOG_SESSION_METRICS, "false")
+                .addAnnotatedClass(GeneralLedger.class)
+                .addAnnotatedClass(PaymentTransaction.class);
+        if (ids == IdStrategy.IDENTITY) {
+            configuration.addResource("benchmark/identity-ids.orm.xml");
+        }
+        sessionFactory = configuration.buildSessionFactory();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        long rows = sessionFactory.getStatistics().getEntityInsertCount();
+        long statements = sessionFactory.getStatistics().getPrepareStatementCount();
+        System.out.printf("%n%s: %d rows, %d JDBC statements prepared%n", ids, rows, statements);
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_COMMIT)
+    public void insertPayinsWithLedgerPairs() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            for (int i = 0; i < TRANSACTIONS_PER_COMMIT; i++) {
+                long n = sequence++;
+                session.persist(payin(n));
+                session.persist(ledgerEntry(n, "1001", GeneralLedger.EntryType.DEBIT));
+                session.persist(ledgerEntry(n, "2001", GeneralLedger.EntryType.CREDIT));
+            }
+            session.getTransaction().commit();
+        }
+    }
+
+    private static PaymentTransaction payin(long n) {
+        PaymentTransaction transaction = new PaymentTransaction();
+        transaction.setTransactionId("TXN-" + n);
+        transaction.setCustomerId("CUST-" + (n % 5000));
+        transaction.setOrderId("ORD-" + n);
+        transaction.setAmount(new BigDecimal("100.00"));
+        transaction.setTransactionType(PaymentTransaction.TransactionType.PAYIN);
+        transaction.setStatus(PaymentTransaction.TransactionStatus.CAPTURED);
+        return transaction;
+    }
+
+    private static GeneralLedger ledgerEntry(long n, String accountId, GeneralLedger.EntryType entryType) {
+        GeneralLedger entry = new GeneralLedger();
+        entry.setLedgerEntryId("LE-" + n + "-" + entryType);
+        entry.setPaymentTransactionId("TXN-" + n);
+        entry.setTransactionId("TXN-" + n);
+        entry.setEntryDate(LocalDate.now());
+        entry.setCustomerId("CUST-" + (n % 5000));
+        entry.setAmount(new BigDecimal("100.00"));
+        entry.setAccountId(accountId);
+        entry.setAccountName("Account " + accountId);
+        entry.setAccountType("ASSET");
+        entry.setNormalBalance("DEBIT");
+        entry.setLedgerType("WALLET");
+        entry.setEntryType(entryType);
+        return entry;
+    }
+}
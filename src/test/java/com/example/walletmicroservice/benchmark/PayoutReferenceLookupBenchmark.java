@@ -0,0 +1,92 @@
+package com.example.walletmicroservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The payout duplicate check (PayoutTransactionRepository.findByReferenceId) as table size grows.
+ * The lookup probes uk_payout_transactions_reference_id, so time per call should stay flat from
+ * 10k to 1M rows. H2 in MySQL mode stands in for the real database. Run as described in
+ * {@link SignatureVerificationBenchmark}, e.g. {@code org.openjdk.jmh.Main PayoutReferenceLookup}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayoutReferenceLookupBenchmark {
+
+    private static final String LOOKUP = "SELECT * FROM payout_transactions WHERE reference_id = ?";
+
+    @Param({"10000", "100000", "1000000"})
+    int rows;
+
+    private Connection connection;
+    private PreparedStatement lookup;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:payouts_" + rows + ";MODE=MySQL");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE payout_transactions (" +
+                    "id BIGINT PRIMARY KEY, payout_id VARCHAR(255) NOT NULL UNIQUE, " +
+                    "customer_id VARCHAR(255) NOT NULL, amount DECIMAL(10,2) NOT NULL, " +
+                    "reference_id VARCHAR(255), status VARCHAR(30), " +
+                    "CONSTRAINT uk_payout_transactions_reference_id UNIQUE (reference_id))");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO payout_transactions VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                insert.setLong(1, i);
+                insert.setString(2, "POUT-" + i);
+                insert.setString(3, "CUST-" + (i % 5000));
+                insert.setBigDecimal(4, BigDecimal.TEN);
+                insert.setString(5, "REF-" + i);
+                insert.setString(6, "processed");
+                insert.addBatch();
+                if (i % 10_000 == 9_999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        lookup = connection.prepareStatement(LOOKUP);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public boolean findByReferenceId() throws SQLException {
+        lookup.setString(1, "REF-" + ThreadLocalRandom.current().nextInt(rows));
+        try (ResultSet rs = lookup.executeQuery()) {
+            return rs.next();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.walletmicroservice.benchmark;
+
+import com.example.walletmicroservice.config.RazorpayCredentials;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call request setup in RazorpayHttpClientService: the previous createHeaders() (key pair
+ * concatenated, Base64-encoded and put into a new HttpHeaders on every call, URL built from the
+ * base URL) against the shared headers of RazorpayCredentials and a URL resolved once. Both
+ * build the HttpEntity handed to the RestTemplate. Run with {@code -prof gc} as described in
+ * {@link SignatureVerificationBenchmark}, e.g. {@code org.openjdk.jmh.Main RazorpayHeaders -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RazorpayHeadersBenchmark {
+
+    private static final String KEY_ID = "rzp_test_S61BnFZgDLIkc6";
+    private static final String KEY_SECRET = "IyNbWl6ChPscgkSvY2NBd25H";
+    private static final String BASE_URL = " https://api.razorpay.com/v1";
+    private static final String BODY = "{\"name\":\"Test User\",\"type\":\"customer\"}";
+
+    // Fields rather than constants, so the legacy concatenations are not folded at compile time
+    private String keyId = KEY_ID;
+    private String keySecret = KEY_SECRET;
+    private String baseUrl = BASE_URL;
+
+    private RazorpayCredentials credentials;
+    private String payoutsUrl;
+
+    @Setup
+    public void setUp() {
+        credentials = new RazorpayCredentials(KEY_ID, KEY_SECRET, "");
+        payoutsUrl = BASE_URL.trim() + "/payouts";
+    }
+
+    @Benchmark
+    public void legacyHeadersPerCall(Blackhole blackhole) {
+        String url = baseUrl + "/payouts";
+        String auth = keyId + ":" + keySecret;
+        String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Basic " + encodedAuth);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        blackhole.consume(url);
+        blackhole.consume(new HttpEntity<>(BODY, headers));
+    }
+
+    @Benchmark
+    public void precomputedHeaders(Blackhole blackhole) {
+        blackhole.consume(payoutsUrl);
+        blackhole.consume(new HttpEntity<>(BODY, credentials.headers()));
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.walletmicroservice.benchmark;
+
+import com.example.walletmicroservice.dto.RazorpayPayout;
+import com.example.walletmicroservice.dto.RazorpayPayoutRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON handling of one Razorpay payout call in PayoutService.initiatePayout: the request body,
+ * the response and the metadata stored on the payout. The org.json path builds a JSONObject,
+ * writes its String as bytes (StringHttpMessageConverter), reads the response into a String and
+ * parses that into a JSONObject. The Jackson path writes the request record straight to the body
+ * stream and binds the response stream to a record (MappingJackson2HttpMessageConverter). The
+ * HTTP body is a null stream on the way out and a canned payout response on the way back.
+ * Run with {@code -prof gc} as described in {@link SignatureVerificationBenchmark}, e.g.
+ * {@code org.openjdk.jmh.Main RazorpayPayoutJson -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RazorpayPayoutJsonBenchmark {
+
+    private static final String RESPONSE = "{\"id\":\"pout_00000000000001\",\"entity\":\"payout\"," +
+            "\"fund_account_id\":\"fa_00000000000001\",\"amount\":1000000,\"currency\":\"INR\"," +
+            "\"notes\":{\"customer_id\":\"CUST-1\"},\"fees\":590,\"tax\":90,\"status\":\"processing\"," +
+            "\"purpose\":\"payout\",\"utr\":null,\"mode\":\"IMPS\",\"reference_id\":\"REF-1\"," +
+            "\"narration\":\"Wallet withdrawal\",\"batch_id\":null,\"failure_reason\":null," +
+            "\"created_at\":1760000000,\"fee_type\":null,\"status_details\":{\"reason\":null," +
+            "\"description\":null,\"source\":null},\"merchant_id\":\"M0000000000001\"," +
+            "\"status_details_id\":null,\"error\":{\"source\":null,\"reason\":null,\"description\":null," +
+            "\"code\":\"NA\",\"step\":\"NA\",\"metadata\":{}}}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Discards the request body; unlike OutputStream.nullOutputStream() it survives Jackson closing it
+    private final OutputStream body = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+    private final BigDecimal amount = new BigDecimal("10000.00");
+    private final Map<String, Object> notes = Map.of("customer_id", "CUST-1");
+
+    private byte[] response;
+
+    @Setup
+    public void setUp() {
+        response = RESPONSE.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void orgJson(Blackhole blackhole) throws IOException {
+        JSONObject payoutRequest = new JSONObject();
+        payoutRequest.put("account_number", "2323230015582473");
+        payoutRequest.put("fund_account_id", "fa_00000000000001");
+        payoutRequest.put("amount", amount.multiply(BigDecimal.valueOf(100)).intValue());
+        payoutRequest.put("currency", "INR");
+        payoutRequest.put("mode", "IMPS");
+        payoutRequest.put("purpose", "payout");
+        payoutRequest.put("reference_id", "REF-1");
+        payoutRequest.put("narration", "Wallet withdrawal");
+        payoutRequest.put("notes", new JSONObject(notes));
+        body.write(payoutRequest.toString().getBytes(StandardCharsets.UTF_8));
+
+        String responseBody = StreamUtils.copyToString(new ByteArrayInputStream(response), StandardCharsets.UTF_8);
+        JSONObject razorpayResponse = new JSONObject(responseBody);
+        blackhole.consume(razorpayResponse.getString("id"));
+        blackhole.consume(razorpayResponse.getString("status"));
+        blackhole.consume(BigDecimal.valueOf(razorpayResponse.optDouble("fees", 0)).divide(BigDecimal.valueOf(100)));
+        blackhole.consume(BigDecimal.valueOf(razorpayResponse.optDouble("tax", 0)).divide(BigDecimal.valueOf(100)));
+        blackhole.consume(razorpayResponse.optString("utr", null));
+
+        JSONObject metadata = new JSONObject();
+        metadata.put("razorpay_response", razorpayResponse);
+        metadata.put("initiated_at", LocalDateTime.now().toString());
+        blackhole.consume(metadata.toString());
+    }
+
+    @Benchmark
+    public void jacksonRecords(Blackhole blackhole) throws IOException {
+        RazorpayPayoutRequest payoutRequest = new RazorpayPayoutRequest(
+                "2323230015582473",
+                "fa_00000000000001",
+                amount.multiply(BigDecimal.valueOf(100)).longValue(),
+                "INR",
+                "IMPS",
+                "payout",
+                "REF-1",
+                "Wallet withdrawal",
+                notes);
+        objectMapper.writeValue(body, payoutRequest);
+
+        RazorpayPayout razorpayResponse = objectMapper.readValue(new ByteArrayInputStream(response), RazorpayPayout.class);
+        blackhole.consume(razorpayResponse.id());
+        blackhole.consume(razorpayResponse.status());
+        blackhole.consume(BigDecimal.valueOf(razorpayResponse.fees(), 2));
+        blackhole.consume(BigDecimal.valueOf(razorpayResponse.tax(), 2));
+        blackhole.consume(razorpayResponse.utr());
+
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("razorpay_response", razorpayResponse);
+        metadata.put("initiated_at", LocalDateTime.now().toString());
+        blackhole.consume(objectMapper.writeValueAsString(metadata));
+    }
+}
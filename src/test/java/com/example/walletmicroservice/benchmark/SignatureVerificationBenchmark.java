@@ -0,0 +1,70 @@
+package com.example.walletmicroservice.benchmark;
+
+import com.example.walletmicroservice.util.HmacSha256Verifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Razorpay checkout/webhook signature verification: the previous per-call Mac + hex string
+ * comparison against HmacSha256Verifier. Run with the GC profiler to see allocation per call:
+ *
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main SignatureVerification -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignatureVerificationBenchmark {
+
+    private static final String SECRET = "IyNbWl6ChPscgkSvY2NBd25H";
+
+    @Param({"64", "2048"})
+    int payloadLength;
+
+    private String payload;
+    private String signature;
+    private HmacSha256Verifier verifier;
+
+    @Setup
+    public void setUp() throws Exception {
+        payload = "x".repeat(payloadLength);
+        signature = legacyHex(payload);
+        verifier = new HmacSha256Verifier(SECRET);
+    }
+
+    @Benchmark
+    public boolean legacyPerCallMac() throws Exception {
+        return legacyHex(payload).equals(signature.trim());
+    }
+
+    @Benchmark
+    public boolean threadLocalVerifier() {
+        return verifier.verifyHex(signature, payload);
+    }
+
+    private static String legacyHex(String data) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.trim().getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.walletmicroservice.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthCircuitBreakerTest {
+
+    private static final long OPEN_DURATION_MS = 50;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AuthCircuitBreaker breaker = new AuthCircuitBreaker(true, 3, OPEN_DURATION_MS, meterRegistry);
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertThat(breaker.getState()).isEqualTo(AuthCircuitBreaker.State.CLOSED);
+
+        breaker.recordFailure();
+        assertThat(breaker.getState()).isEqualTo(AuthCircuitBreaker.State.OPEN);
+        assertThat(breaker.allowRequest()).isFalse();
+        assertThat(meterRegistry.get("auth.circuit.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        breaker.recordFailure();
+
+        assertThat(breaker.getState()).isEqualTo(AuthCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void halfOpenLetsExactlyOneProbeThrough() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_DURATION_MS + 10);
+
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(AuthCircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.allowRequest()).isFalse();
+    }
+
+    @Test
+    void successfulProbeClosesTheCircuit() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_DURATION_MS + 10);
+        assertThat(breaker.allowRequest()).isTrue();
+
+        breaker.recordSuccess();
+
+        assertThat(breaker.getState()).isEqualTo(AuthCircuitBreaker.State.CLOSED);
+        assertThat(breaker.allowRequest()).isTrue();
+    }
+
+    @Test
+    void failedProbeReopensTheCircuit() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_DURATION_MS + 10);
+        assertThat(breaker.allowRequest()).isTrue();
+
+        breaker.recordFailure();
+
+        assertThat(breaker.getState()).isEqualTo(AuthCircuitBreaker.State.OPEN);
+        assertThat(breaker.allowRequest()).isFalse();
+        assertThat(meterRegistry.get("auth.circuit.transitions").tag("to", "OPEN").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void disabledBreakerAlwaysAllows() {
+        AuthCircuitBreaker disabled = new AuthCircuitBreaker(false, 1, OPEN_DURATION_MS, new SimpleMeterRegistry());
+        disabled.recordFailure();
+        disabled.recordFailure();
+
+        assertThat(disabled.allowRequest()).isTrue();
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+        assertThat(breaker.getState()).isEqualTo(AuthCircuitBreaker.State.OPEN);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.walletmicroservice.config;
+
+import com.example.walletmicroservice.entity.PayoutTransaction;
+import com.example.walletmicroservice.repository.PayoutTransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs with the production MySQLDialect (so the sequences are *_seq tables, as on MySQL)
+ * against H2 in MySQL mode.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:id_sequences;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import(IdSequenceInitializer.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdSequenceInitializerTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IdSequenceInitializer idSequenceInitializer;
+
+    @Autowired
+    private PayoutTransactionRepository payoutRepository;
+
+    @Test
+    void newIdsStartAboveRowsInsertedByAutoIncrement() {
+        // A row written before the switch to pooled sequences, far ahead of the sequence
+        jdbcTemplate.update("INSERT INTO payout_transactions (id, payout_id, customer_id, contact_id, " +
+                "fund_account_id, amount, reference_id) VALUES (1000, 'POUT-legacy', 'CUST-1', 'cont_1', 'fa_1', 10.00, 'REF-legacy')");
+
+        idSequenceInitializer.alignSequences();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT next_val FROM payout_transactions_seq", Long.class))
+                .isEqualTo(1000L + 50 + 1);
+
+        PayoutTransaction first = payoutRepository.save(payout("POUT-new-1"));
+        PayoutTransaction second = payoutRepository.save(payout("POUT-new-2"));
+        assertThat(first.getId()).isGreaterThan(1000L);
+        assertThat(second.getId()).isGreaterThan(first.getId());
+    }
+
+    @Test
+    void sequenceAlreadyAheadIsLeftAlone() {
+        jdbcTemplate.update("UPDATE general_ledger_seq SET next_val = 5000");
+
+        idSequenceInitializer.alignSequences();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT next_val FROM general_ledger_seq", Long.class))
+                .isEqualTo(5000L);
+    }
+
+    private static PayoutTransaction payout(String payoutId) {
+        PayoutTransaction payout = new PayoutTransaction();
+        payout.setPayoutId(payoutId);
+        payout.setCustomerId("CUST-1");
+        payout.setContactId("cont_1");
+        payout.setFundAccountId("fa_1");
+        payout.setAmount(new BigDecimal("10.00"));
+        payout.setReferenceId(payoutId);
+        return payout;
+    }
+}
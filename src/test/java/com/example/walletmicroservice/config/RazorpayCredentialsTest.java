@@ -0,0 +1,48 @@
+package com.example.walletmicroservice.config;
+
+import com.razorpay.RazorpayClient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RazorpayCredentialsTest {
+
+    @Test
+    void rotationReplacesHeadersAndSdkClient() {
+        RazorpayCredentials credentials = new RazorpayCredentials("rzp_test_old", "old-secret", "");
+        RazorpayClient oldClient = credentials.client();
+        String oldAuthorization = credentials.headers().getFirst(HttpHeaders.AUTHORIZATION);
+
+        credentials.rotate("rzp_test_new", "new-secret");
+
+        assertThat(credentials.keyId()).isEqualTo("rzp_test_new");
+        assertThat(credentials.client()).isNotNull().isNotSameAs(oldClient);
+        assertThat(credentials.headers().getFirst(HttpHeaders.AUTHORIZATION)).isNotEqualTo(oldAuthorization);
+    }
+
+    @Test
+    void changedCredentialsFileRotatesTheSdkClient(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("razorpay.properties");
+        Files.writeString(file, "razorpay.key.id=rzp_test_file\nrazorpay.key.secret=file-secret\n");
+        RazorpayCredentials credentials = new RazorpayCredentials("rzp_test_startup", "startup-secret", file.toString());
+        assertThat(credentials.keyId()).isEqualTo("rzp_test_file");
+        RazorpayClient client = credentials.client();
+
+        credentials.reloadIfChanged();
+        assertThat(credentials.client()).isSameAs(client);
+
+        Files.writeString(file, "razorpay.key.id=rzp_test_rotated\nrazorpay.key.secret=rotated-secret\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(5)));
+        credentials.reloadIfChanged();
+
+        assertThat(credentials.keyId()).isEqualTo("rzp_test_rotated");
+        assertThat(credentials.client()).isNotSameAs(client);
+    }
+}
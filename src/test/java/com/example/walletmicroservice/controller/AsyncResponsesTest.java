@@ -0,0 +1,98 @@
+package com.example.walletmicroservice.controller;
+
+import com.example.walletmicroservice.exception.RazorpayRateLimitException;
+import com.example.walletmicroservice.service.RazorpayRateLimiter.Endpoint;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncResponsesTest {
+
+    @Test
+    void resultIsReturnedWithOk() {
+        ResponseEntity<?> response = respond(CompletableFuture.completedFuture("body"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo("body");
+    }
+
+    @Test
+    void timeoutMapsToGatewayTimeout() {
+        ResponseEntity<?> response = respond(CompletableFuture.failedFuture(new TimeoutException()));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+        assertThat(response.getBody()).isEqualTo("Error fetching payment: Razorpay timed out");
+    }
+
+    @Test
+    void timeoutFromOrTimeoutMapsToGatewayTimeout() {
+        CompletableFuture<String> never = new CompletableFuture<>();
+
+        ResponseEntity<?> response = respond(never.orTimeout(1, TimeUnit.MILLISECONDS)
+                .thenApply(String::trim));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    @Test
+    void saturatedExecutorMapsToServiceUnavailable() {
+        ResponseEntity<?> response = respond(CompletableFuture.failedFuture(new RejectedExecutionException()));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getBody()).isEqualTo("Error fetching payment: too many requests in flight");
+    }
+
+    @Test
+    void rateLimitMapsToTooManyRequestsWithRetryAfter() {
+        RazorpayRateLimitException rateLimited = new RazorpayRateLimitException(
+                Endpoint.PAYMENTS, Duration.ofMillis(1500), "Razorpay PAYMENTS rate limited");
+
+        ResponseEntity<?> response = respond(CompletableFuture.failedFuture(new CompletionException(rateLimited)));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(response.getBody()).isEqualTo("Razorpay PAYMENTS rate limited");
+    }
+
+    @Test
+    void runtimeExceptionMapsToTheClientErrorStatus() {
+        ResponseEntity<?> response = respond(CompletableFuture.failedFuture(
+                new CompletionException(new IllegalArgumentException("Payment not found"))));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(response.getBody()).isEqualTo("Payment not found");
+    }
+
+    @Test
+    void checkedExceptionMapsToInternalServerError() {
+        ResponseEntity<?> response = respond(CompletableFuture.failedFuture(
+                new CompletionException(new IOException("connection reset"))));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(response.getBody()).isEqualTo("Error fetching payment");
+    }
+
+    private static ResponseEntity<?> respond(CompletableFuture<String> future) {
+        DeferredResult<ResponseEntity<?>> result =
+                AsyncResponses.deferred(future, HttpStatus.NOT_FOUND, "Error fetching payment");
+        // The response is set by whichever thread completes the future
+        future.handle((body, error) -> null).join();
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!result.hasResult() && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        return (ResponseEntity<?>) result.getResult();
+    }
+}
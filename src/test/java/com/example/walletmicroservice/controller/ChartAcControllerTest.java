@@ -0,0 +1,44 @@
+package com.example.walletmicroservice.controller;
+
+import com.example.walletmicroservice.service.ChartOfAccountsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest
+@ContextConfiguration(classes = {SecuredControllerTestSupport.SecurityTestConfig.class, ChartAcController.class})
+class ChartAcControllerTest extends SecuredControllerTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ChartOfAccountsService chartOfAccountsService;
+
+    @Test
+    void adminCanRefreshTheRegistry() throws Exception {
+        when(chartOfAccountsService.refreshRegistry()).thenReturn(16);
+
+        mockMvc.perform(post("/api/v1/coa/refresh").with(bearer(ADMIN_TOKEN)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accounts").value(16));
+    }
+
+    @Test
+    void nonAdminCannotRefreshTheRegistry() throws Exception {
+        mockMvc.perform(post("/api/v1/coa/refresh").with(bearer(USER_TOKEN)))
+                .andExpect(status().isForbidden());
+
+        verify(chartOfAccountsService, never()).refreshRegistry();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.walletmicroservice.controller;
+
+import com.example.walletmicroservice.service.RazorpayService;
+import com.example.walletmicroservice.service.WalletBalanceCheckpointService;
+import com.example.walletmicroservice.service.WalletBalanceService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest
+@ContextConfiguration(classes = {SecuredControllerTestSupport.SecurityTestConfig.class, RefundController.class})
+class RefundControllerTest extends SecuredControllerTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RazorpayService razorpayService;
+
+    @MockBean
+    private WalletBalanceService walletBalanceService;
+
+    @MockBean
+    private WalletBalanceCheckpointService walletBalanceCheckpointService;
+
+    @Test
+    void adminCanRebuildWalletBalances() throws Exception {
+        when(walletBalanceService.rebuild()).thenReturn(new WalletBalanceService.RebuildResult(3, 1));
+
+        mockMvc.perform(post("/api/v1/wallet/balance/rebuild").with(bearer(ADMIN_TOKEN)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customers").value(3))
+                .andExpect(jsonPath("$.corrected").value(1));
+    }
+
+    @Test
+    void nonAdminCannotRebuildWalletBalances() throws Exception {
+        mockMvc.perform(post("/api/v1/wallet/balance/rebuild").with(bearer(USER_TOKEN)))
+                .andExpect(status().isForbidden());
+
+        verify(walletBalanceService, never()).rebuild();
+    }
+
+    @Test
+    void balanceIsReadFromTheMaterializedRow() throws Exception {
+        when(walletBalanceService.getBalance("CUST-1")).thenReturn(new BigDecimal("250.00"));
+
+        mockMvc.perform(get("/api/v1/wallet/balance/CUST-1").with(bearer(USER_TOKEN)))
+                .andExpect(status().isOk())
+                .andExpect(content().string("250.00"));
+
+        verify(walletBalanceCheckpointService, never()).getBalance(any());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.walletmicroservice.controller;
+
+import com.example.walletmicroservice.config.AuthCircuitBreaker;
+import com.example.walletmicroservice.config.ExternalTokenValidationFilter;
+import com.example.walletmicroservice.config.ExternalTokenValidationFilter.UserInfo;
+import com.example.walletmicroservice.config.LocalJwtVerifier;
+import com.example.walletmicroservice.config.SecurityConfig;
+import com.example.walletmicroservice.config.TokenValidationCache;
+import com.example.walletmicroservice.exception.GlobalExceptionHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.web.client.RestTemplate;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * Base for @WebMvcTest slices that run the real security chain (SecurityConfig and
+ * ExternalTokenValidationFilter). Tokens are resolved by a mocked LocalJwtVerifier, so no auth
+ * server is needed. Subclasses list this config plus their controller in @ContextConfiguration;
+ * the application class cannot be used because it enables JPA repositories.
+ */
+abstract class SecuredControllerTestSupport {
+
+    static final String ADMIN_TOKEN = "admin-token";
+    static final String USER_TOKEN = "user-token";
+
+    @MockBean
+    LocalJwtVerifier localJwtVerifier;
+
+    @MockBean
+    TokenValidationCache tokenValidationCache;
+
+    @MockBean
+    AuthCircuitBreaker authCircuitBreaker;
+
+    @MockBean(name = "authRestTemplate")
+    RestTemplate authRestTemplate;
+
+    @BeforeEach
+    void stubTokens() {
+        when(localJwtVerifier.verify(ADMIN_TOKEN)).thenReturn(user("admin-1", "ADMIN"));
+        when(localJwtVerifier.verify(USER_TOKEN)).thenReturn(user("user-1", "USER"));
+    }
+
+    static RequestPostProcessor bearer(String token) {
+        return request -> {
+            request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+            return request;
+        };
+    }
+
+    private static UserInfo user(String uid, String role) {
+        return new UserInfo(true, uid, role, uid + "@example.com", "", "Token is valid",
+                System.currentTimeMillis());
+    }
+
+    @Configuration
+    @Import({SecurityConfig.class, ExternalTokenValidationFilter.class, GlobalExceptionHandler.class})
+    static class SecurityTestConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.walletmicroservice.controller;
+
+import com.example.walletmicroservice.service.RazorpayService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest
+@ContextConfiguration(classes = {SecuredControllerTestSupport.SecurityTestConfig.class, UserController.class})
+class UserControllerTest extends SecuredControllerTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RazorpayService razorpayService;
+
+    @Test
+    void recentTransactionsLimitOutsideTheAllowedRangeIsRejected() throws Exception {
+        for (String limit : List.of("0", "-5", "101")) {
+            mockMvc.perform(get("/api/v1/user/CUST-1/transactions/recent")
+                            .param("limit", limit)
+                            .with(bearer(USER_TOKEN)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string("limit must be between 1 and 100"));
+        }
+
+        verify(razorpayService, never()).getRecentUserTransactions(anyString(), anyInt());
+    }
+
+    @Test
+    void recentTransactionsWithinTheLimitAreReturned() throws Exception {
+        when(razorpayService.getRecentUserTransactions("CUST-1", 100)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/v1/user/CUST-1/transactions/recent")
+                        .param("limit", "100")
+                        .with(bearer(USER_TOKEN)))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"));
+    }
+
+    @Test
+    void pagedTransactionsSizeOutsideTheAllowedRangeIsRejected() throws Exception {
+        mockMvc.perform(get("/api/v1/user/CUST-1/transactions")
+                        .param("size", "0")
+                        .with(bearer(USER_TOKEN)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/user/CUST-1/transactions")
+                        .param("page", "-1")
+                        .with(bearer(USER_TOKEN)))
+                .andExpect(status().isBadRequest());
+
+        verify(razorpayService, never()).getUserTransactions(anyString(), anyInt(), anyInt(), anyString(), anyString());
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.walletmicroservice.repository;
+
+import com.example.walletmicroservice.entity.PaymentTransaction;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Metadata edits on a PaymentTransaction loaded in one transaction and saved (merged) in another,
+ * the way RazorpayService updates a transaction around a Razorpay call. Against H2 in MySQL mode.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:payment_transactions;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentTransactionRepositoryTest {
+
+    @Autowired
+    private PaymentTransactionRepository paymentTransactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // H2 stores a string bound to a JSON column as a JSON string literal, MySQL parses it
+        for (String column : List.of("order_metadata", "payment_metadata", "refund_metadata")) {
+            jdbcTemplate.execute("ALTER TABLE payment_transactions ALTER COLUMN " + column + " SET DATA TYPE TEXT");
+        }
+        paymentTransactionRepository.deleteAll();
+        PaymentTransaction transaction = new PaymentTransaction();
+        transaction.setOrderCreateFields("TXN-1", "CUST-1", "ORD-1", new BigDecimal("100.00"),
+                "order_1", new JSONObject().put("id", "order_1"));
+        paymentTransactionRepository.save(transaction);
+    }
+
+    @Test
+    void metadataEditedOnADetachedTransactionIsSaved() {
+        PaymentTransaction detached = load();
+        detached.setPaymentVerificationFields("pay_1", true, new JSONObject().put("status", "captured"));
+
+        paymentTransactionRepository.save(detached);
+
+        PaymentTransaction saved = load();
+        assertThat(saved.getStatus()).isEqualTo(PaymentTransaction.TransactionStatus.CAPTURED);
+        assertThat(saved.getPaymentMetadataJson().getJSONObject("payment_verification")
+                .getJSONObject("verification_details").getString("status")).isEqualTo("captured");
+        assertThat(saved.getOrderMetadataJson().getJSONObject("create_order").getString("razorpay_order_id"))
+                .isEqualTo("order_1");
+    }
+
+    @Test
+    void successiveDetachedEditsAreMergedIntoTheDocument() {
+        PaymentTransaction first = load();
+        first.setPaymentVerificationFields("pay_1", true, new JSONObject());
+        paymentTransactionRepository.save(first);
+
+        PaymentTransaction second = load();
+        second.setRefundProcessingFields("rfnd_1");
+        second.updatePaymentMetadataField("reconciled", true);
+        paymentTransactionRepository.save(second);
+
+        PaymentTransaction saved = load();
+        JSONObject paymentMetadata = saved.getPaymentMetadataJson();
+        assertThat(paymentMetadata.has("payment_verification")).isTrue();
+        assertThat(paymentMetadata.getBoolean("reconciled")).isTrue();
+        assertThat(saved.getRefundMetadataJson().getJSONObject("refund_processing").getString("razorpay_refund_id"))
+                .isEqualTo("rfnd_1");
+    }
+
+    @Test
+    void toStringLeavesPendingMetadataAlone() {
+        PaymentTransaction detached = load();
+        detached.updateOrderMetadataField("note", "kept");
+
+        assertThat(detached.toString()).doesNotContain("create_order").doesNotContain("kept");
+        paymentTransactionRepository.save(detached);
+
+        assertThat(load().getOrderMetadataJson().getString("note")).isEqualTo("kept");
+    }
+
+    private PaymentTransaction load() {
+        return paymentTransactionRepository.findByTransactionId("TXN-1").orElseThrow();
+    }
+}
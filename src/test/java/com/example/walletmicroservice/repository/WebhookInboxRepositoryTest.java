@@ -0,0 +1,91 @@
+package com.example.walletmicroservice.repository;
+
+import com.example.walletmicroservice.entity.WebhookInbox;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+
+import static com.example.walletmicroservice.entity.WebhookInbox.Status.PENDING;
+import static com.example.walletmicroservice.entity.WebhookInbox.Status.PROCESSING;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Claim and lease queries of the webhook inbox, against H2 in MySQL mode.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:webhook_inbox;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class WebhookInboxRepositoryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 16, 12, 0);
+
+    @Autowired
+    private WebhookInboxRepository inboxRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void onlyOneWorkerCanClaimAnEntry() {
+        Long id = entry("evt_1:pay_1", PENDING, NOW).getId();
+
+        assertThat(inboxRepository.claim(id, PENDING, PROCESSING, NOW)).isEqualTo(1);
+        assertThat(inboxRepository.claim(id, PENDING, PROCESSING, NOW)).isZero();
+
+        WebhookInbox claimed = reload(id);
+        assertThat(claimed.getStatus()).isEqualTo(PROCESSING);
+        assertThat(claimed.getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    void readyIdsAreDuePendingEntriesOldestFirst() {
+        Long first = entry("evt_1:pay_1", PENDING, NOW.minusMinutes(2)).getId();
+        Long second = entry("evt_2:pay_2", PENDING, NOW.minusMinutes(1)).getId();
+        entry("evt_3:pay_3", PENDING, NOW.plusMinutes(1));
+        entry("evt_4:pay_4", PROCESSING, NOW.minusMinutes(5));
+
+        assertThat(inboxRepository.findReadyIds(PENDING, NOW, PageRequest.of(0, 10)))
+                .containsExactly(first, second);
+    }
+
+    @Test
+    void expiredLeasesAreReleasedAndFreshOnesKept() {
+        Long abandoned = entry("evt_1:pay_1", PENDING, NOW).getId();
+        Long working = entry("evt_2:pay_2", PENDING, NOW).getId();
+        inboxRepository.claim(abandoned, PENDING, PROCESSING, NOW.minusMinutes(10));
+        inboxRepository.claim(working, PENDING, PROCESSING, NOW.minusSeconds(10));
+
+        int released = inboxRepository.releaseStuck(PROCESSING, PENDING, NOW.minusMinutes(5), NOW);
+
+        assertThat(released).isEqualTo(1);
+        assertThat(reload(abandoned).getStatus()).isEqualTo(PENDING);
+        assertThat(reload(working).getStatus()).isEqualTo(PROCESSING);
+    }
+
+    private WebhookInbox entry(String dedupKey, WebhookInbox.Status status, LocalDateTime nextAttemptAt) {
+        WebhookInbox entry = new WebhookInbox();
+        entry.setDedupKey(dedupKey);
+        entry.setEventType("payment.captured");
+        entry.setPayload("{}");
+        entry.setStatus(status);
+        entry.setNextAttemptAt(nextAttemptAt);
+        return entityManager.persistAndFlush(entry);
+    }
+
+    private WebhookInbox reload(Long id) {
+        entityManager.clear();
+        return inboxRepository.findById(id).orElseThrow();
+    }
+}
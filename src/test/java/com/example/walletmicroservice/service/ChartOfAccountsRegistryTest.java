@@ -0,0 +1,43 @@
+package com.example.walletmicroservice.service;
+
+import com.example.walletmicroservice.entity.ChartOfAccounts;
+import com.example.walletmicroservice.repository.ChartOfAccountsRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChartOfAccountsRegistryTest {
+
+    @Test
+    void callersCannotChangeTheCachedAccounts() {
+        ChartOfAccounts loaded = account("1001", "Company Bank");
+        ChartOfAccountsRepository repository = mock(ChartOfAccountsRepository.class);
+        when(repository.findAll()).thenReturn(List.of(loaded));
+        ChartOfAccountsRegistry registry = new ChartOfAccountsRegistry(repository);
+        registry.refresh();
+
+        // Neither the loaded entity nor a handed-out account is the cached instance
+        loaded.setAccountName("changed in the persistence context");
+        ChartOfAccounts first = registry.getAccount("1001");
+        first.setAccountName("changed by a caller");
+
+        ChartOfAccounts second = registry.getAccount("1001");
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getAccountName()).isEqualTo("Company Bank");
+        assertThat(second.getLedgerType()).isEqualTo(ChartOfAccounts.LedgerType.REAL);
+    }
+
+    private static ChartOfAccounts account(String id, String name) {
+        ChartOfAccounts account = new ChartOfAccounts();
+        account.setAccountId(id);
+        account.setAccountName(name);
+        account.setAccountType(ChartOfAccounts.AccountType.ASSET);
+        account.setNormalBalance(ChartOfAccounts.NormalBalance.DEBIT);
+        account.setLedgerType(ChartOfAccounts.LedgerType.REAL);
+        return account;
+    }
+}
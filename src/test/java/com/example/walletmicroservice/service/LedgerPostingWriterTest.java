@@ -0,0 +1,149 @@
+package com.example.walletmicroservice.service;
+
+import com.example.walletmicroservice.entity.GeneralLedger;
+import com.example.walletmicroservice.repository.GeneralLedgerRepository;
+import com.example.walletmicroservice.service.LedgerPostingWriter.JournalEntry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LedgerPostingWriterTest {
+
+    private final GeneralLedgerRepository generalLedgerRepository = mock(GeneralLedgerRepository.class);
+    // One list of lines per saveAll call, i.e. per committed transaction
+    private final List<List<GeneralLedger>> commits = new CopyOnWriteArrayList<>();
+    private LedgerPostingWriter writer;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.shutdown();
+    }
+
+    @Test
+    void entriesPostedTogetherAreCommittedInOneTransaction() throws Exception {
+        writer = writer(3, 1000);
+
+        List<CompletableFuture<Void>> futures = List.of(
+                writer.post(entry("JE-1")), writer.post(entry("JE-2")), writer.post(entry("JE-3")));
+        for (CompletableFuture<Void> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        assertThat(commits).singleElement().satisfies(lines -> assertThat(lines).hasSize(6));
+    }
+
+    @Test
+    void failingEntryFailsOnlyItsOwnFuture() throws Exception {
+        writer = writer(2, 1000);
+
+        CompletableFuture<Void> good = writer.post(entry("JE-good"));
+        CompletableFuture<Void> bad = writer.post(entry("BAD-1"));
+
+        good.get(5, TimeUnit.SECONDS);
+        assertThatThrownBy(() -> bad.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("rejected BAD-1");
+        // The batch failed as a whole, then the good entry committed on its own
+        assertThat(commits).singleElement().satisfies(lines ->
+                assertThat(lines).allMatch(line -> line.getLedgerEntryId().startsWith("JE-good")));
+    }
+
+    @Test
+    void everyEntryPostedAroundShutdownIsCommitted() throws Exception {
+        writer = writer(50, 1);
+        int posters = 4;
+        int entriesPerPoster = 250;
+        CountDownLatch started = new CountDownLatch(posters);
+
+        ExecutorService executor = Executors.newFixedThreadPool(posters);
+        List<Future<List<CompletableFuture<Void>>>> posted = new ArrayList<>();
+        for (int p = 0; p < posters; p++) {
+            int poster = p;
+            posted.add(executor.submit(() -> {
+                started.countDown();
+                List<CompletableFuture<Void>> futures = new ArrayList<>();
+                for (int i = 0; i < entriesPerPoster; i++) {
+                    futures.add(writer.post(entry("JE-" + poster + "-" + i)));
+                }
+                return futures;
+            }));
+        }
+        started.await();
+        writer.shutdown();
+
+        try {
+            for (Future<List<CompletableFuture<Void>>> futures : posted) {
+                for (CompletableFuture<Void> future : futures.get(5, TimeUnit.SECONDS)) {
+                    future.get(5, TimeUnit.SECONDS);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(commits.stream().mapToInt(List::size).sum()).isEqualTo(posters * entriesPerPoster * 2);
+    }
+
+    @Test
+    void entryPostedAfterShutdownIsCommittedOnTheCallingThread() throws Exception {
+        writer = writer(10, 1000);
+        writer.shutdown();
+
+        CompletableFuture<Void> future = writer.post(entry("JE-late"));
+
+        assertThat(future).isCompletedWithValue(null);
+        assertThat(commits).hasSize(1);
+    }
+
+    private LedgerPostingWriter writer(int maxBatchSize, long maxLatencyMs) {
+        when(generalLedgerRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<GeneralLedger> lines = new ArrayList<>();
+            invocation.<Iterable<GeneralLedger>>getArgument(0).forEach(lines::add);
+            for (GeneralLedger line : lines) {
+                if (line.getLedgerEntryId().startsWith("BAD")) {
+                    throw new IllegalStateException("rejected " + line.getTransactionId());
+                }
+            }
+            commits.add(lines);
+            return lines;
+        });
+        return new LedgerPostingWriter(generalLedgerRepository, mock(WalletBalanceService.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), new SimpleMeterRegistry(),
+                maxBatchSize, maxLatencyMs, 10_000);
+    }
+
+    private static JournalEntry entry(String reference) {
+        return new JournalEntry(reference, List.of(
+                line(reference, GeneralLedger.EntryType.DEBIT),
+                line(reference, GeneralLedger.EntryType.CREDIT)));
+    }
+
+    private static GeneralLedger line(String reference, GeneralLedger.EntryType entryType) {
+        GeneralLedger line = new GeneralLedger();
+        line.setLedgerEntryId(reference + "-" + entryType);
+        line.setTransactionId(reference);
+        line.setCustomerId("CUST-1");
+        line.setAmount(new BigDecimal("10.00"));
+        line.setEntryType(entryType);
+        return line;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.walletmicroservice.service;
+
+import com.example.walletmicroservice.dto.PayoutRequestDTO;
+import com.example.walletmicroservice.dto.RazorpayPayout;
+import com.example.walletmicroservice.dto.RazorpayPayoutRequest;
+import com.example.walletmicroservice.entity.PayoutTransaction;
+import com.example.walletmicroservice.repository.PayoutTransactionRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class PayoutServiceTest {
+
+    private PayoutTransactionRepository payoutRepository;
+    private RazorpayHttpClientService razorpayHttpClient;
+    private RazorpayAsyncClient razorpayAsyncClient;
+    private LedgerService ledgerService;
+    private PayoutService payoutService;
+    // Status writes handed to the update executor, which runs them inline
+    private int updateTasks;
+    private boolean inUpdateExecutor;
+
+    @BeforeEach
+    void setUp() {
+        payoutRepository = mock(PayoutTransactionRepository.class);
+        razorpayHttpClient = mock(RazorpayHttpClientService.class);
+        razorpayAsyncClient = mock(RazorpayAsyncClient.class);
+        ledgerService = mock(LedgerService.class);
+        payoutService = new PayoutService(razorpayHttpClient, razorpayAsyncClient, payoutRepository,
+                ledgerService, mock(WalletBalanceService.class), new ObjectMapper(),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), updateExecutor());
+    }
+
+    @Test
+    void duplicateReferenceLosingTheInsertRaceReturnsTheExistingPayout() {
+        PayoutTransaction winner = payout("POUT-winner", "REF-1");
+        // Not there at the pre-check, inserted by the other request before our flush
+        when(payoutRepository.findByReferenceId("REF-1"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(winner));
+        when(payoutRepository.saveAndFlush(any(PayoutTransaction.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_payout_transactions_reference_id"));
+
+        PayoutTransaction result = payoutService.initiatePayout(request("REF-1"));
+
+        assertThat(result).isSameAs(winner);
+        verifyNoInteractions(razorpayHttpClient, ledgerService);
+    }
+
+    @Test
+    void repeatedReferenceReturnsTheExistingPayoutWithoutInserting() {
+        PayoutTransaction existing = payout("POUT-existing", "REF-2");
+        when(payoutRepository.findByReferenceId("REF-2")).thenReturn(Optional.of(existing));
+
+        assertThat(payoutService.initiatePayout(request("REF-2"))).isSameAs(existing);
+        verifyNoInteractions(razorpayHttpClient, ledgerService);
+    }
+
+    @Test
+    void constraintViolationWithoutReferenceIsRethrown() {
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("uk_payout_id");
+        when(payoutRepository.saveAndFlush(any(PayoutTransaction.class))).thenThrow(violation);
+
+        assertThatThrownBy(() -> payoutService.initiatePayout(request(null))).isSameAs(violation);
+    }
+
+    @Test
+    void payoutStatusSkipsRazorpayWhenThePayoutNeverReachedIt() {
+        PayoutTransaction reserved = payout("POUT-reserved", "REF-3");
+        reserved.setStatus("created");
+        when(payoutRepository.findByPayoutId("POUT-reserved")).thenReturn(Optional.of(reserved));
+
+        assertThat(payoutService.getPayoutStatus("POUT-reserved").join()).isSameAs(reserved);
+        verifyNoInteractions(razorpayAsyncClient);
+    }
+
+    @Test
+    void payoutStatusIsSavedOnTheUpdateExecutor() {
+        PayoutTransaction processing = payout("POUT-1", "REF-5");
+        processing.setRazorpayPayoutId("pout_1");
+        when(payoutRepository.findByPayoutId("POUT-1")).thenReturn(Optional.of(processing));
+        when(payoutRepository.save(any(PayoutTransaction.class))).thenAnswer(call -> {
+            assertThat(inUpdateExecutor).isTrue();
+            return call.getArgument(0);
+        });
+        when(razorpayAsyncClient.getPayoutStatus("pout_1"))
+                .thenReturn(CompletableFuture.completedFuture(razorpayPayout("processed", "UTR1")));
+
+        PayoutTransaction result = payoutService.getPayoutStatus("POUT-1").join();
+
+        assertThat(updateTasks).isEqualTo(1);
+        assertThat(result.getStatus()).isEqualTo("processed");
+        assertThat(result.getUtrNumber()).isEqualTo("UTR1");
+        assertThat(result.getProcessedAt()).isNotNull();
+    }
+
+    @Test
+    void payoutSettledWhileRazorpayWasQueriedIsNotOverwritten() {
+        PayoutTransaction processing = payout("POUT-2", "REF-6");
+        processing.setRazorpayPayoutId("pout_2");
+        PayoutTransaction reversed = payout("POUT-2", "REF-6");
+        reversed.setStatus("reversed");
+        when(payoutRepository.findByPayoutId("POUT-2"))
+                .thenReturn(Optional.of(processing))
+                .thenReturn(Optional.of(reversed));
+        when(razorpayAsyncClient.getPayoutStatus("pout_2"))
+                .thenReturn(CompletableFuture.completedFuture(razorpayPayout("processed", "UTR2")));
+
+        assertThat(payoutService.getPayoutStatus("POUT-2").join().getStatus()).isEqualTo("reversed");
+        verify(payoutRepository, never()).save(any(PayoutTransaction.class));
+    }
+
+    @Test
+    void failedRazorpayCallStoresFailureMetadataAsJson() throws Exception {
+        when(payoutRepository.findByReferenceId("REF-4")).thenReturn(Optional.empty());
+        when(payoutRepository.saveAndFlush(any(PayoutTransaction.class))).thenAnswer(call -> call.getArgument(0));
+        when(payoutRepository.save(any(PayoutTransaction.class))).thenAnswer(call -> call.getArgument(0));
+        when(razorpayHttpClient.createPayout(any(RazorpayPayoutRequest.class)))
+                .thenThrow(new RuntimeException("Razorpay error: BAD_REQUEST_ERROR"));
+        when(ledgerService.recordWithdrawalFailed(any(), any(), any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        PayoutTransaction result = payoutService.initiatePayout(request("REF-4"));
+
+        assertThat(result.getStatus()).isEqualTo("failed");
+        JsonNode metadata = new ObjectMapper().readTree(result.getMetadata());
+        assertThat(metadata.get("error").asText()).isEqualTo("Razorpay error: BAD_REQUEST_ERROR");
+        assertThat(metadata.has("failed_at")).isTrue();
+    }
+
+    private Executor updateExecutor() {
+        return command -> {
+            updateTasks++;
+            inUpdateExecutor = true;
+            try {
+                command.run();
+            } finally {
+                inUpdateExecutor = false;
+            }
+        };
+    }
+
+    private static RazorpayPayout razorpayPayout(String status, String utr) {
+        return new RazorpayPayout("pout_1", "payout", "fa_1", 10000L, "INR", 0L, 0L, status, utr,
+                "IMPS", "payout", "REF", null, null, null);
+    }
+
+    private static PayoutRequestDTO request(String referenceId) {
+        PayoutRequestDTO request = new PayoutRequestDTO();
+        request.setCustomerId("CUST-1");
+        request.setContactId("cont_1");
+        request.setFundAccountId("fa_1");
+        request.setAmount(new BigDecimal("100.00"));
+        request.setCurrency("INR");
+        request.setMode("IMPS");
+        request.setPurpose("payout");
+        request.setReferenceId(referenceId);
+        return request;
+    }
+
+    private static PayoutTransaction payout(String payoutId, String referenceId) {
+        PayoutTransaction payout = new PayoutTransaction();
+        payout.setPayoutId(payoutId);
+        payout.setReferenceId(referenceId);
+        payout.setStatus("processing");
+        return payout;
+    }
+}
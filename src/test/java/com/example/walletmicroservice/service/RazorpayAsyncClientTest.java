@@ -0,0 +1,108 @@
+package com.example.walletmicroservice.service;
+
+import com.example.walletmicroservice.config.RazorpayCredentials;
+import com.example.walletmicroservice.dto.RazorpayPayout;
+import com.razorpay.RazorpayException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class RazorpayAsyncClientTest {
+
+    private final RazorpayHttpClientService razorpayHttpClient = mock(RazorpayHttpClientService.class);
+    private final RazorpayRateLimiter rateLimiter = mock(RazorpayRateLimiter.class);
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void callRunsOnTheGivenExecutor() throws Exception {
+        RazorpayPayout payout = payout();
+        when(razorpayHttpClient.getPayoutStatus("pout_1")).thenReturn(payout);
+
+        assertThat(client(executor, 1000).getPayoutStatus("pout_1").get(5, TimeUnit.SECONDS)).isSameAs(payout);
+    }
+
+    @Test
+    void callOutlivingTheTimeoutFailsWithTimeoutException() {
+        when(razorpayHttpClient.getPayoutStatus("pout_1")).thenAnswer(invocation -> {
+            release.await();
+            return payout();
+        });
+
+        CompletableFuture<RazorpayPayout> status = client(executor, 50).getPayoutStatus("pout_1");
+
+        assertThatThrownBy(() -> status.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    void saturatedExecutorFailsTheFutureInsteadOfThrowing() {
+        RazorpayAsyncClient client = client(command -> {
+            throw new RejectedExecutionException("queue full");
+        }, 1000);
+
+        CompletableFuture<RazorpayPayout> status = client.getPayoutStatus("pout_1");
+
+        assertThatThrownBy(status::join).hasCauseInstanceOf(RejectedExecutionException.class);
+        verifyNoInteractions(razorpayHttpClient);
+    }
+
+    @Test
+    void checkedExceptionIsWrappedInTheFuture() throws Exception {
+        RazorpayException failure = new RazorpayException("BAD_REQUEST_ERROR");
+        when(rateLimiter.execute(eq(RazorpayRateLimiter.Endpoint.PAYMENTS), any())).thenThrow(failure);
+
+        CompletableFuture<JSONObject> payment = client(executor, 1000).fetchPayment("pay_1");
+
+        assertThatThrownBy(() -> payment.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause().isSameAs(failure);
+    }
+
+    @Test
+    void runtimeExceptionIsPassedThroughUnwrapped() {
+        IllegalStateException failure = new IllegalStateException("Razorpay error: SERVER_ERROR");
+        when(razorpayHttpClient.getPayoutStatus("pout_1")).thenThrow(failure);
+
+        CompletableFuture<RazorpayPayout> status = client(executor, 1000).getPayoutStatus("pout_1");
+
+        assertThatThrownBy(() -> status.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause().isSameAs(failure);
+    }
+
+    private RazorpayAsyncClient client(Executor executor, long timeoutMs) {
+        return new RazorpayAsyncClient(razorpayHttpClient, mock(RazorpayCredentials.class), rateLimiter,
+                executor, executor, timeoutMs);
+    }
+
+    private static RazorpayPayout payout() {
+        return new RazorpayPayout("pout_1", "payout", "fa_1", 10000L, "INR", 0L, 0L, "processing", null,
+                "IMPS", "payout", "REF-1", null, null, null);
+    }
+}
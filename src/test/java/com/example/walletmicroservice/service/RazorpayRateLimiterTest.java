@@ -0,0 +1,129 @@
+package com.example.walletmicroservice.service;
+
+import com.example.walletmicroservice.config.RazorpayRateLimitSettings;
+import com.example.walletmicroservice.exception.RazorpayRateLimitException;
+import com.example.walletmicroservice.service.RazorpayRateLimiter.Endpoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RazorpayRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void callOverTheRateIsRejectedWithoutReachingRazorpay() {
+        RazorpayRateLimiter limiter = limiter(new RazorpayRateLimitSettings.Limit(1, 1, 5, 10));
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThat(limiter.execute(Endpoint.ORDERS, calls::incrementAndGet)).isEqualTo(1);
+
+        assertThatThrownBy(() -> limiter.execute(Endpoint.ORDERS, calls::incrementAndGet))
+                .isInstanceOfSatisfying(RazorpayRateLimitException.class, e -> {
+                    assertThat(e.getEndpoint()).isEqualTo(Endpoint.ORDERS);
+                    assertThat(e.getRetryAfter()).isGreaterThan(Duration.ofMillis(500));
+                });
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(counter("razorpay.ratelimit.rejected", "orders")).isEqualTo(1);
+    }
+
+    @Test
+    void callTurnedAwayByTheBulkheadGivesItsTokenBack() throws Exception {
+        RazorpayRateLimiter limiter = limiter(new RazorpayRateLimitSettings.Limit(0.1, 2, 1, 50));
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> holder = executor.submit(() -> limiter.execute(Endpoint.ORDERS, () -> {
+            inFlight.countDown();
+            release.await();
+            return "first";
+        }));
+        assertThat(inFlight.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Gets the second token but not the only permit
+        assertThatThrownBy(() -> limiter.execute(Endpoint.ORDERS, () -> "second"))
+                .isInstanceOf(RazorpayRateLimitException.class)
+                .hasMessageContaining("concurrency limit");
+        release.countDown();
+        assertThat(holder.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+
+        // At 0.1/s nothing has refilled; the second token is only there because it was refunded
+        assertThat(limiter.execute(Endpoint.ORDERS, () -> "third")).isEqualTo("third");
+    }
+
+    @Test
+    void tooManyRequestsPausesEveryEndpointClassForRetryAfter() {
+        RazorpayRateLimiter limiter = limiter(new RazorpayRateLimitSettings.Limit(100, 10, 5, 10));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "2");
+
+        assertThatThrownBy(() -> limiter.execute(Endpoint.PAYOUTS, () -> {
+            throw HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests",
+                    headers, null, null);
+        })).isInstanceOfSatisfying(RazorpayRateLimitException.class,
+                e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(2)));
+        assertThat(counter("razorpay.ratelimit.throttled", "payouts")).isEqualTo(1);
+
+        // Same key, so orders back off too instead of spending the key's budget
+        assertThatThrownBy(() -> limiter.execute(Endpoint.ORDERS, () -> "order"))
+                .isInstanceOfSatisfying(RazorpayRateLimitException.class,
+                        e -> assertThat(e.getRetryAfter()).isGreaterThan(Duration.ofMillis(1500)));
+    }
+
+    @Test
+    void tooManyRequestsWithoutRetryAfterUsesTheDefault() {
+        RazorpayRateLimiter limiter = limiter(new RazorpayRateLimitSettings.Limit(100, 10, 5, 10));
+
+        assertThatThrownBy(() -> limiter.execute(Endpoint.CONTACTS, () -> {
+            throw HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests",
+                    new HttpHeaders(), null, null);
+        })).isInstanceOfSatisfying(RazorpayRateLimitException.class,
+                e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofMillis(1000)));
+    }
+
+    @Test
+    void classWithoutItsOwnMaxWaitUsesTheSharedOne() {
+        RazorpayRateLimitSettings settings = new RazorpayRateLimitSettings();
+        settings.setMaxWaitMs(300);
+        settings.setPayments(new RazorpayRateLimitSettings.Limit(10, 1, 5));
+        RazorpayRateLimiter limiter = new RazorpayRateLimiter(settings, meterRegistry);
+
+        assertThat(limiter.execute(Endpoint.PAYMENTS, () -> "first")).isEqualTo("first");
+        // The next token is 100 ms away, inside the shared 300 ms
+        assertThat(limiter.execute(Endpoint.PAYMENTS, () -> "second")).isEqualTo("second");
+    }
+
+    private RazorpayRateLimiter limiter(RazorpayRateLimitSettings.Limit limit) {
+        RazorpayRateLimitSettings settings = new RazorpayRateLimitSettings();
+        settings.setOrders(limit);
+        settings.setPayments(limit);
+        settings.setPayouts(limit);
+        settings.setContacts(limit);
+        settings.setFundAccounts(limit);
+        return new RazorpayRateLimiter(settings, meterRegistry);
+    }
+
+    private double counter(String name, String endpoint) {
+        return meterRegistry.get(name).tag("endpoint", endpoint).counter().count();
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.walletmicroservice.service;
+
+import com.example.walletmicroservice.config.RazorpayCredentials;
+import com.example.walletmicroservice.config.RazorpayRateLimitSettings;
+import com.example.walletmicroservice.dto.OrderRequestDTO;
+import com.example.walletmicroservice.repository.PaymentTransactionEventRepository;
+import com.example.walletmicroservice.repository.PaymentTransactionRepository;
+import com.razorpay.Order;
+import com.razorpay.OrderClient;
+import com.razorpay.RazorpayClient;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Order creation against H2 in MySQL mode with a two-connection pool, so a Razorpay call that
+ * held a connection would block every order past the second.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:razorpay_orders;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RazorpayServiceOrderTest {
+
+    private static final int CONCURRENT_ORDERS = 10;
+
+    @Autowired
+    private PaymentTransactionRepository paymentTransactionRepository;
+
+    @Autowired
+    private PaymentTransactionEventRepository eventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final RazorpayClient razorpayClient = mock(RazorpayClient.class);
+    private RazorpayService razorpayService;
+
+    @BeforeEach
+    void setUp() {
+        eventRepository.deleteAll();
+        paymentTransactionRepository.deleteAll();
+
+        razorpayClient.orders = mock(OrderClient.class);
+        RazorpayCredentials credentials = mock(RazorpayCredentials.class);
+        when(credentials.client()).thenReturn(razorpayClient);
+        RazorpayRateLimitSettings settings = new RazorpayRateLimitSettings();
+        settings.setOrders(new RazorpayRateLimitSettings.Limit(100, 100, 100));
+        razorpayService = new RazorpayService(
+                credentials,
+                mock(RazorpayAsyncClient.class),
+                new RazorpayRateLimiter(settings, new SimpleMeterRegistry()),
+                paymentTransactionRepository,
+                mock(LedgerService.class),
+                mock(SignatureVerifier.class),
+                new PaymentTransactionEventService(eventRepository),
+                new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    void razorpayCallsInFlightAreNotLimitedByThePoolSize() throws Exception {
+        // Fetch the first id blocks up front: the *_seq tables are read on a connection of their
+        // own, which two inserts holding both pooled connections would wait for
+        when(razorpayClient.orders.create(any(JSONObject.class)))
+                .thenAnswer(invocation -> razorpayOrder("order_0", invocation.getArgument(0)));
+        razorpayService.createOrder(orderRequest("CUST-0"));
+
+        HikariDataSource pool = (HikariDataSource) dataSource;
+        CountDownLatch allInFlight = new CountDownLatch(CONCURRENT_ORDERS);
+        AtomicInteger maxActiveConnections = new AtomicInteger();
+        AtomicInteger sequence = new AtomicInteger();
+
+        when(razorpayClient.orders.create(any(JSONObject.class))).thenAnswer(invocation -> {
+            // Sampled before the latch opens, while no order has got past its Razorpay call
+            maxActiveConnections.accumulateAndGet(pool.getHikariPoolMXBean().getActiveConnections(), Math::max);
+            // Every order has to be in the Razorpay call at the same time
+            allInFlight.countDown();
+            if (!allInFlight.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Razorpay calls were limited to " + (CONCURRENT_ORDERS - allInFlight.getCount()));
+            }
+            return razorpayOrder("order_" + sequence.incrementAndGet(), invocation.getArgument(0));
+        });
+
+        ExecutorService callers = Executors.newFixedThreadPool(CONCURRENT_ORDERS);
+        try {
+            List<Future<?>> orders = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_ORDERS; i++) {
+                OrderRequestDTO request = orderRequest("CUST-" + (i + 1));
+                orders.add(callers.submit(() -> razorpayService.createOrder(request)));
+            }
+            for (Future<?> order : orders) {
+                order.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertThat(maxActiveConnections.get()).isZero();
+        assertThat(paymentTransactionRepository.count()).isEqualTo(CONCURRENT_ORDERS + 1);
+    }
+
+    @Test
+    void reconcilingTheSameOrderTwiceInsertsItOnce() {
+        JSONObject notes = new JSONObject();
+        notes.put("internal_order_id", "ORD-1");
+        notes.put("customer_id", "CUST-1");
+        notes.put("internal_transaction_id", "TXN-1");
+        JSONObject request = new JSONObject();
+        request.put("amount", 10000);
+        request.put("currency", "INR");
+        request.put("receipt", "ORD-1");
+        request.put("notes", notes);
+        Order order = razorpayOrder("order_1", request);
+
+        assertThat(razorpayService.reconcileOrder(order)).isTrue();
+        // A second node, or the next run, finds it through the razorpay_order_id index
+        assertThat(razorpayService.reconcileOrder(order)).isFalse();
+
+        assertThat(paymentTransactionRepository.findAllByRazorpayOrderId("order_1"))
+                .singleElement()
+                .satisfies(transaction -> {
+                    assertThat(transaction.getTransactionId()).isEqualTo("TXN-1");
+                    assertThat(transaction.getAmount()).isEqualByComparingTo("100.00");
+                });
+    }
+
+    private static OrderRequestDTO orderRequest(String customerId) {
+        OrderRequestDTO request = new OrderRequestDTO();
+        request.setCustomerId(customerId);
+        request.setAmount(new BigDecimal("100.00"));
+        return request;
+    }
+
+    private static Order razorpayOrder(String id, JSONObject request) {
+        JSONObject json = new JSONObject(request.toString());
+        json.put("id", id);
+        json.put("entity", "order");
+        json.put("status", "created");
+        return new Order(json);
+    }
+}
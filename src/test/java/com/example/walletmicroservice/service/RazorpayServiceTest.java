@@ -0,0 +1,85 @@
+package com.example.walletmicroservice.service;
+
+import com.example.walletmicroservice.config.RazorpayCredentials;
+import com.example.walletmicroservice.dto.RefundApprovalDTO;
+import com.example.walletmicroservice.entity.PaymentTransactionEvent;
+import com.example.walletmicroservice.repository.PaymentTransactionRepository;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RazorpayServiceTest {
+
+    private LedgerService ledgerService;
+    private PaymentTransactionEventService eventService;
+    private PlatformTransactionManager transactionManager;
+    private RazorpayService razorpayService;
+
+    @BeforeEach
+    void setUp() {
+        ledgerService = mock(LedgerService.class);
+        eventService = mock(PaymentTransactionEventService.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        razorpayService = new RazorpayService(mock(RazorpayCredentials.class), mock(RazorpayAsyncClient.class),
+                mock(RazorpayRateLimiter.class), mock(PaymentTransactionRepository.class), ledgerService,
+                mock(SignatureVerifier.class), eventService, new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    void refundApprovalPostingAndEventCommitInOneTransaction() {
+        when(ledgerService.recordRefundApproved(anyString(), anyString(), anyString(), anyString(),
+                any(BigDecimal.class), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        razorpayService.handleRefundApproved(approval());
+
+        InOrder inOrder = inOrder(transactionManager, ledgerService, eventService);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(ledgerService).recordRefundApproved(eq("TXN-1"), eq("RFD-1"), eq("CUST-1"), eq("ORD-1"),
+                any(BigDecimal.class), any());
+        inOrder.verify(eventService).record(eq("RFD-1"), eq(PaymentTransactionEvent.EventType.REFUND_APPROVED),
+                any(JSONObject.class));
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void failedEventRollsBackTheRefundApprovalPosting() {
+        when(ledgerService.recordRefundApproved(anyString(), anyString(), anyString(), anyString(),
+                any(BigDecimal.class), any())).thenReturn(new CompletableFuture<>());
+        doThrow(new IllegalStateException("event insert failed")).when(eventService)
+                .record(anyString(), any(), any(JSONObject.class));
+
+        assertThatThrownBy(() -> razorpayService.handleRefundApproved(approval()))
+                .hasMessage("event insert failed");
+
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    private static RefundApprovalDTO approval() {
+        RefundApprovalDTO approval = new RefundApprovalDTO();
+        approval.setPaymentTransactionId("TXN-1");
+        approval.setTransactionId("RFD-1");
+        approval.setCustomerId("CUST-1");
+        approval.setOrderId("ORD-1");
+        approval.setAmount(new BigDecimal("40.00"));
+        approval.setApproverId("admin-1");
+        return approval;
+    }
+}
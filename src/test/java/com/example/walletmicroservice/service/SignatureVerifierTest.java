@@ -0,0 +1,136 @@
+package com.example.walletmicroservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SignatureVerifier must accept exactly what the previous per-call Mac implementation accepted.
+ */
+class SignatureVerifierTest {
+
+    private static final String KEY_SECRET = "IyNbWl6ChPscgkSvY2NBd25H";
+    private static final String WEBHOOK_SECRET = "webhook_secret_123";
+
+    private final SignatureVerifier verifier = new SignatureVerifier(KEY_SECRET, WEBHOOK_SECRET);
+    private final ExecutorService pool = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void acceptsPaymentSignaturesOfThePreviousImplementation() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            String orderId = "order_" + randomText(random, 14);
+            String paymentId = "pay_" + randomText(random, 14);
+            String signature = legacyPaymentSignature(orderId, paymentId);
+
+            assertThat(verifier.verifyPaymentSignature(orderId, paymentId, signature)).isTrue();
+            assertThat(verifier.verifyPaymentSignature(orderId, paymentId, " " + signature + "\n")).isTrue();
+            assertThat(verifier.verifyPaymentSignature(orderId, paymentId, signature.toUpperCase())).isTrue();
+        }
+    }
+
+    @Test
+    void acceptsWebhookSignaturesOfThePreviousImplementation() throws Exception {
+        Random random = new Random(7);
+        // Short, longer than the 512 byte scratch buffer, and non-ASCII bodies
+        for (int length : new int[]{0, 1, 100, 511, 512, 513, 5000}) {
+            String payload = "{\"event\":\"payment.captured\",\"data\":\"" + randomText(random, length) + "\"}";
+            assertThat(verifier.verifyWebhookSignature(payload, legacyWebhookSignature(payload))).isTrue();
+            assertThat(verifier.verifyWebhookSignature(payload, hexWebhookSignature(payload))).isTrue();
+        }
+        String unicode = "{\"notes\":\"₹ 100 – café ✓\"}".repeat(40);
+        assertThat(verifier.verifyWebhookSignature(unicode, legacyWebhookSignature(unicode))).isTrue();
+    }
+
+    @Test
+    void rejectsTamperedOrMalformedSignatures() throws Exception {
+        String signature = legacyPaymentSignature("order_1", "pay_1");
+        char last = signature.charAt(signature.length() - 1);
+        String tampered = signature.substring(0, signature.length() - 1) + (last == '0' ? '1' : '0');
+
+        assertThat(verifier.verifyPaymentSignature("order_1", "pay_1", tampered)).isFalse();
+        assertThat(verifier.verifyPaymentSignature("order_1", "pay_2", signature)).isFalse();
+        assertThat(verifier.verifyPaymentSignature("order_1", "pay_1", signature.substring(2))).isFalse();
+        assertThat(verifier.verifyPaymentSignature("order_1", "pay_1", "zz" + signature.substring(2))).isFalse();
+        assertThat(verifier.verifyPaymentSignature("order_1", "pay_1", null)).isFalse();
+
+        String payload = "{\"event\":\"refund.processed\"}";
+        assertThat(verifier.verifyWebhookSignature(payload + " ", legacyWebhookSignature(payload))).isFalse();
+        assertThat(verifier.verifyWebhookSignature(payload, "not-a-signature")).isFalse();
+    }
+
+    @Test
+    void perThreadEnginesGiveCorrectResultsUnderConcurrency() throws Exception {
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            int seed = t;
+            tasks.add(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 500; i++) {
+                    String payload = randomText(random, random.nextInt(2000));
+                    String valid = legacyWebhookSignature(payload);
+                    String other = legacyWebhookSignature(payload + "x");
+                    if (!verifier.verifyWebhookSignature(payload, valid)
+                            || verifier.verifyWebhookSignature(payload, other)) {
+                        return false;
+                    }
+                }
+                return true;
+            });
+        }
+
+        for (Future<Boolean> result : pool.invokeAll(tasks, 30, TimeUnit.SECONDS)) {
+            assertThat(result.get()).isTrue();
+        }
+    }
+
+    // ============ PREVIOUS IMPLEMENTATION ============
+
+    // RazorpayService.verifySignature before the change
+    static String legacyPaymentSignature(String orderId, String paymentId) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(KEY_SECRET.trim().getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        byte[] hash = mac.doFinal((orderId + "|" + paymentId).getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(hash);
+    }
+
+    // PaymentController.calculateRFC2104HMAC before the change
+    static String legacyWebhookSignature(String payload) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(WEBHOOK_SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return Base64.getEncoder().encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // What Razorpay actually sends in X-Razorpay-Signature
+    private static String hexWebhookSignature(String payload) throws Exception {
+        return HexFormat.of().formatHex(Base64.getDecoder().decode(legacyWebhookSignature(payload)));
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append((char) ('a' + random.nextInt(26)));
+        }
+        return text.toString();
+    }
+}
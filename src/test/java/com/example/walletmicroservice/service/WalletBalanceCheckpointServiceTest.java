@@ -0,0 +1,96 @@
+package com.example.walletmicroservice.service;
+
+import com.example.walletmicroservice.entity.GeneralLedger;
+import com.example.walletmicroservice.entity.WalletBalance;
+import com.example.walletmicroservice.entity.WalletBalanceCheckpoint;
+import com.example.walletmicroservice.repository.GeneralLedgerRepository;
+import com.example.walletmicroservice.repository.WalletBalanceCheckpointRepository;
+import com.example.walletmicroservice.repository.WalletBalanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static com.example.walletmicroservice.service.WalletBalanceService.WALLET_LEDGER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WalletBalanceCheckpointServiceTest {
+
+    private static final LocalDateTime AS_OF = LocalDateTime.of(2026, 10, 1, 0, 0);
+
+    private WalletBalanceCheckpointRepository checkpointRepository;
+    private GeneralLedgerRepository generalLedgerRepository;
+    private WalletBalanceRepository walletBalanceRepository;
+    private WalletBalanceCheckpointService service;
+
+    @BeforeEach
+    void setUp() {
+        checkpointRepository = mock(WalletBalanceCheckpointRepository.class);
+        generalLedgerRepository = mock(GeneralLedgerRepository.class);
+        walletBalanceRepository = mock(WalletBalanceRepository.class);
+        service = new WalletBalanceCheckpointService(checkpointRepository, generalLedgerRepository,
+                walletBalanceRepository, new TransactionTemplate(mock(PlatformTransactionManager.class)), 300);
+
+        WalletBalanceCheckpoint checkpoint = new WalletBalanceCheckpoint();
+        checkpoint.setBalance(new BigDecimal("100.00"));
+        checkpoint.setAsOf(AS_OF);
+        when(checkpointRepository.findByCustomerIdAndLedgerType("CUST-1", WALLET_LEDGER))
+                .thenReturn(Optional.of(checkpoint));
+        when(generalLedgerRepository.sumNetBalanceSince(eq("CUST-1"), eq(WALLET_LEDGER),
+                eq(GeneralLedger.EntryType.CREDIT), any(LocalDateTime.class)))
+                .thenReturn(new BigDecimal("25.00"));
+    }
+
+    @Test
+    void materializedBalanceEqualToCheckpointPlusDeltaMatches() {
+        stored(new BigDecimal("125.0000"));
+
+        assertThat(service.matchesMaterializedBalance("CUST-1")).isTrue();
+    }
+
+    @Test
+    void driftedMaterializedBalanceIsReported() {
+        stored(new BigDecimal("140.00"));
+
+        assertThat(service.matchesMaterializedBalance("CUST-1")).isFalse();
+    }
+
+    @Test
+    void firstCompactionResumesFromTheLatestStoredCheckpoint() {
+        when(checkpointRepository.findLatestAsOf(WALLET_LEDGER)).thenReturn(Optional.of(AS_OF));
+
+        service.compact();
+        service.compact();
+
+        verify(checkpointRepository, times(1)).findLatestAsOf(WALLET_LEDGER);
+        verify(generalLedgerRepository).findCustomerIdsWithPostingsBetween(eq(WALLET_LEDGER), eq(AS_OF),
+                any(LocalDateTime.class));
+    }
+
+    @Test
+    void firstCompactionWithoutCheckpointsStartsFromTheBeginning() {
+        when(checkpointRepository.findLatestAsOf(WALLET_LEDGER)).thenReturn(Optional.empty());
+
+        service.compact();
+
+        verify(generalLedgerRepository).findCustomerIdsWithPostingsBetween(eq(WALLET_LEDGER),
+                eq(LocalDateTime.of(1970, 1, 1, 0, 0)), any(LocalDateTime.class));
+    }
+
+    private void stored(BigDecimal amount) {
+        WalletBalance balance = new WalletBalance();
+        balance.setBalance(amount);
+        when(walletBalanceRepository.findByCustomerIdAndLedgerType("CUST-1", WALLET_LEDGER))
+                .thenReturn(Optional.of(balance));
+    }
+}
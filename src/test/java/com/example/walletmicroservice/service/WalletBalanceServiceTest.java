@@ -0,0 +1,175 @@
+package com.example.walletmicroservice.service;
+
+import com.example.walletmicroservice.entity.GeneralLedger;
+import com.example.walletmicroservice.entity.WalletBalance;
+import com.example.walletmicroservice.repository.GeneralLedgerRepository;
+import com.example.walletmicroservice.repository.WalletBalanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the native INSERT ... ON DUPLICATE KEY UPDATE of {@link WalletBalanceRepository#addToBalance}
+ * against H2 in MySQL mode.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:wallet_balances;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WalletBalanceServiceTest {
+
+    @Autowired
+    private WalletBalanceRepository walletBalanceRepository;
+
+    @Autowired
+    private GeneralLedgerRepository generalLedgerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private WalletBalanceService walletBalanceService;
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        generalLedgerRepository.deleteAll();
+        walletBalanceRepository.deleteAll();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        walletBalanceService = new WalletBalanceService(walletBalanceRepository, generalLedgerRepository,
+                transactionTemplate, 16, 1000);
+    }
+
+    @Test
+    void firstPostingCreatesTheRowAndLaterOnesIncrementIt() {
+        apply(line("CUST-1", GeneralLedger.EntryType.CREDIT, "100.00", "WALLET"));
+        assertThat(balanceRow("CUST-1").getBalance()).isEqualByComparingTo("100.00");
+        assertThat(balanceRow("CUST-1").getVersion()).isZero();
+
+        apply(line("CUST-1", GeneralLedger.EntryType.DEBIT, "30.00", "WALLET"));
+
+        WalletBalance balance = balanceRow("CUST-1");
+        assertThat(balance.getBalance()).isEqualByComparingTo("70.00");
+        assertThat(balance.getVersion()).isEqualTo(1L);
+        assertThat(walletBalanceRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void postingsAreNettedPerCustomerAndNonWalletLinesIgnored() {
+        apply(line("CUST-1", GeneralLedger.EntryType.CREDIT, "50.00", "WALLET"),
+                line("CUST-1", GeneralLedger.EntryType.DEBIT, "20.00", "WALLET"),
+                line("CUST-2", GeneralLedger.EntryType.CREDIT, "5.00", "WALLET"),
+                line("CUST-3", GeneralLedger.EntryType.DEBIT, "75.00", "BANK"));
+
+        assertThat(walletBalanceService.getBalance("CUST-1")).isEqualByComparingTo("30.00");
+        assertThat(walletBalanceService.getBalance("CUST-2")).isEqualByComparingTo("5.00");
+        assertThat(walletBalanceRepository.findByCustomerIdAndLedgerType("CUST-3", "WALLET")).isEmpty();
+        assertThat(walletBalanceService.getBalance("CUST-3")).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void concurrentPostingsToOneWalletLoseNoUpdates() throws Exception {
+        apply(line("CUST-1", GeneralLedger.EntryType.CREDIT, "1.00", "WALLET"));
+        int threads = 8;
+        int postingsPerThread = 25;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> postings = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                postings.add(executor.submit(() -> {
+                    for (int i = 0; i < postingsPerThread; i++) {
+                        apply(line("CUST-1", GeneralLedger.EntryType.CREDIT, "1.00", "WALLET"));
+                    }
+                }));
+            }
+            for (Future<?> posting : postings) {
+                posting.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        WalletBalance balance = balanceRow("CUST-1");
+        assertThat(balance.getBalance()).isEqualByComparingTo(BigDecimal.valueOf(1 + threads * postingsPerThread));
+        assertThat(balance.getVersion()).isEqualTo((long) threads * postingsPerThread);
+    }
+
+    @Test
+    void rebuildResetsADriftedBalanceToTheLedger() {
+        GeneralLedger credit = line("CUST-1", GeneralLedger.EntryType.CREDIT, "80.00", "WALLET");
+        GeneralLedger debit = line("CUST-1", GeneralLedger.EntryType.DEBIT, "30.00", "WALLET");
+        transactionTemplate.executeWithoutResult(status -> {
+            generalLedgerRepository.saveAll(List.of(credit, debit));
+            walletBalanceService.applyPostings(List.of(credit, debit));
+        });
+        // A balance update applied without its ledger rows
+        apply(line("CUST-1", GeneralLedger.EntryType.CREDIT, "7.00", "WALLET"));
+
+        assertThat(walletBalanceService.rebuild("CUST-1")).isTrue();
+        assertThat(walletBalanceService.getBalance("CUST-1")).isEqualByComparingTo("50.00");
+        assertThat(walletBalanceService.rebuild("CUST-1")).isFalse();
+    }
+
+    @Test
+    void rebuildCreatesTheRowForALedgerWithoutOne() {
+        generalLedgerRepository.save(line("CUST-9", GeneralLedger.EntryType.CREDIT, "12.50", "WALLET"));
+
+        WalletBalanceService.RebuildResult result = walletBalanceService.rebuild();
+
+        assertThat(result.customers()).isEqualTo(1);
+        assertThat(result.corrected()).isEqualTo(1);
+        assertThat(walletBalanceService.getBalance("CUST-9")).isEqualByComparingTo("12.50");
+    }
+
+    private void apply(GeneralLedger... lines) {
+        transactionTemplate.executeWithoutResult(status -> walletBalanceService.applyPostings(List.of(lines)));
+    }
+
+    private WalletBalance balanceRow(String customerId) {
+        return walletBalanceRepository.findByCustomerIdAndLedgerType(customerId, "WALLET").orElseThrow();
+    }
+
+    private GeneralLedger line(String customerId, GeneralLedger.EntryType entryType, String amount, String ledgerType) {
+        int n = sequence.incrementAndGet();
+        GeneralLedger line = new GeneralLedger();
+        line.setLedgerEntryId("LE-" + n);
+        line.setPaymentTransactionId("TXN-" + n);
+        line.setTransactionId("TXN-" + n);
+        line.setEntryDate(LocalDate.now());
+        line.setCustomerId(customerId);
+        line.setAmount(new BigDecimal(amount));
+        line.setAccountId("2001");
+        line.setAccountName("Customer wallet");
+        line.setAccountType("LIABILITY");
+        line.setNormalBalance("CREDIT");
+        line.setLedgerType(ledgerType);
+        line.setEntryType(entryType);
+        return line;
+    }
+}
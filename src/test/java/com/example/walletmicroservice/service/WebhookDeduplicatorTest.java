@@ -0,0 +1,47 @@
+package com.example.walletmicroservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebhookDeduplicatorTest {
+
+    private final WebhookDeduplicator deduplicator = new WebhookDeduplicator(2, new SimpleMeterRegistry());
+
+    @Test
+    void keyIsEventIdPlusEntityId() {
+        JSONObject webhook = new JSONObject("{\"event\":\"payment.captured\",\"contains\":[\"payment\"]," +
+                "\"payload\":{\"payment\":{\"entity\":{\"id\":\"pay_1\"}}}}");
+
+        assertThat(deduplicator.dedupKey("evt_1", webhook)).isEqualTo("evt_1:pay_1");
+        // No event id header: fall back to the event type
+        assertThat(deduplicator.dedupKey(null, webhook)).isEqualTo("payment.captured:pay_1");
+    }
+
+    @Test
+    void eventWithoutAnEntityHasNoKey() {
+        assertThat(deduplicator.dedupKey("evt_1", new JSONObject("{\"event\":\"payment.captured\"}"))).isNull();
+    }
+
+    @Test
+    void rememberedKeysAreDuplicatesUntilForgotten() {
+        assertThat(deduplicator.seenRecently("evt_1:pay_1")).isFalse();
+        deduplicator.remember("evt_1:pay_1");
+        assertThat(deduplicator.seenRecently("evt_1:pay_1")).isTrue();
+
+        deduplicator.forget("evt_1:pay_1");
+        assertThat(deduplicator.seenRecently("evt_1:pay_1")).isFalse();
+    }
+
+    @Test
+    void oldestKeyIsEvictedPastCapacity() {
+        deduplicator.remember("a");
+        deduplicator.remember("b");
+        deduplicator.remember("c");
+
+        assertThat(deduplicator.seenRecently("a")).isFalse();
+        assertThat(deduplicator.seenRecently("c")).isTrue();
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.walletmicroservice.service;
+
+import com.example.walletmicroservice.entity.WebhookInbox;
+import com.example.walletmicroservice.repository.WebhookInboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WebhookInboxServiceTest {
+
+    private static final String PAYLOAD = "{\"event\":\"payment.captured\",\"contains\":[\"payment\"]," +
+            "\"payload\":{\"payment\":{\"entity\":{\"id\":\"pay_1\",\"order_id\":\"order_1\"}}}}";
+    private static final int MAX_ATTEMPTS = 3;
+
+    private WebhookInboxRepository inboxRepository;
+    private RazorpayService razorpayService;
+    private WebhookDeduplicator deduplicator;
+    private WebhookInboxService inboxService;
+
+    @BeforeEach
+    void setUp() {
+        inboxRepository = mock(WebhookInboxRepository.class);
+        razorpayService = mock(RazorpayService.class);
+        deduplicator = new WebhookDeduplicator(100, new SimpleMeterRegistry());
+        inboxService = new WebhookInboxService(inboxRepository, razorpayService, deduplicator,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), new SimpleMeterRegistry(),
+                1, 10, 100, MAX_ATTEMPTS, 1000, 300000);
+        when(inboxRepository.save(any(WebhookInbox.class))).thenAnswer(call -> call.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        inboxService.shutdown();
+    }
+
+    @Test
+    void redeliveryIsDroppedInMemoryAndByTheUniqueKey() {
+        when(inboxRepository.saveAndFlush(any(WebhookInbox.class)))
+                .thenAnswer(call -> withId(call.getArgument(0), 1L))
+                .thenThrow(new DataIntegrityViolationException("uk_webhook_inbox_dedup_key"));
+
+        assertThat(inboxService.enqueue(PAYLOAD, "evt_1")).isNotNull();
+        assertThat(inboxService.enqueue(PAYLOAD, "evt_1")).isNull();
+
+        // Another node stored it first: only the database knows
+        assertThat(inboxService.enqueue(PAYLOAD, "evt_2")).isNull();
+        assertThat(deduplicator.seenRecently("evt_2:pay_1")).isTrue();
+    }
+
+    @Test
+    void entryClaimedElsewhereIsNotProcessed() throws Exception {
+        when(inboxRepository.claim(eq(1L), any(), any(), any())).thenReturn(0);
+
+        inboxService.process(1L);
+
+        verify(razorpayService, never()).handleWebhook(any());
+    }
+
+    @Test
+    void successfulEntryIsMarkedProcessed() throws Exception {
+        WebhookInbox entry = claimed(1);
+
+        inboxService.process(1L);
+
+        verify(razorpayService).handleWebhook(any(JSONObject.class));
+        assertThat(entry.getStatus()).isEqualTo(WebhookInbox.Status.PROCESSED);
+        assertThat(entry.getProcessedAt()).isNotNull();
+    }
+
+    @Test
+    void failedAttemptIsRetriedWithBackoff() throws Exception {
+        WebhookInbox entry = claimed(1);
+        doThrow(new RuntimeException("db down")).when(razorpayService).handleWebhook(any());
+
+        inboxService.process(1L);
+
+        assertThat(entry.getStatus()).isEqualTo(WebhookInbox.Status.PENDING);
+        assertThat(entry.getLastError()).isEqualTo("db down");
+        assertThat(entry.getNextAttemptAt()).isAfter(LocalDateTime.now());
+        assertThat(entry.getDedupKey()).isEqualTo("evt_1:pay_1");
+    }
+
+    @Test
+    void lastFailedAttemptReleasesTheDedupKeySoRedeliveryIsAccepted() throws Exception {
+        WebhookInbox entry = claimed(MAX_ATTEMPTS);
+        deduplicator.remember("evt_1:pay_1");
+        doThrow(new RuntimeException("bad payload")).when(razorpayService).handleWebhook(any());
+
+        inboxService.process(1L);
+
+        assertThat(entry.getStatus()).isEqualTo(WebhookInbox.Status.FAILED);
+        assertThat(entry.getDedupKey()).isNull();
+        assertThat(deduplicator.seenRecently("evt_1:pay_1")).isFalse();
+    }
+
+    @Test
+    void onlyFailedEntriesCanBeRequeued() {
+        WebhookInbox entry = entry(MAX_ATTEMPTS);
+        entry.setStatus(WebhookInbox.Status.FAILED);
+        when(inboxRepository.findById(1L)).thenReturn(Optional.of(entry));
+
+        assertThat(inboxService.requeue(1L)).isTrue();
+        assertThat(entry.getStatus()).isEqualTo(WebhookInbox.Status.PENDING);
+        assertThat(entry.getAttempts()).isZero();
+
+        assertThat(inboxService.requeue(1L)).isFalse();
+        assertThat(inboxService.requeue(2L)).isFalse();
+    }
+
+    private WebhookInbox claimed(int attempts) {
+        WebhookInbox entry = entry(attempts);
+        when(inboxRepository.claim(eq(1L), any(), any(), any())).thenReturn(1);
+        when(inboxRepository.findById(1L)).thenReturn(Optional.of(entry));
+        return entry;
+    }
+
+    private static WebhookInbox entry(int attempts) {
+        WebhookInbox entry = withId(new WebhookInbox(), 1L);
+        entry.setDedupKey("evt_1:pay_1");
+        entry.setEventType("payment.captured");
+        entry.setPayload(PAYLOAD);
+        entry.setStatus(WebhookInbox.Status.PROCESSING);
+        entry.setAttempts(attempts);
+        entry.setReceivedAt(LocalDateTime.now());
+        return entry;
+    }
+
+    private static WebhookInbox withId(WebhookInbox entry, Long id) {
+        entry.setId(id);
+        return entry;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.walletmicroservice.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    private final ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneExecution() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<Future<String>> results = submitAll(() -> {
+            loads.incrementAndGet();
+            release.await();
+            return "user-1";
+        });
+        awaitWaiters();
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("user-1");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(singleFlight.getExecutions()).isEqualTo(1);
+        assertThat(singleFlight.getShared()).isEqualTo(CALLERS - 1);
+        assertThat(singleFlight.getInFlight()).isZero();
+    }
+
+    @Test
+    void loaderExceptionReachesEveryWaiter() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IOException failure = new IOException("auth server down");
+
+        List<Future<String>> results = submitAll(() -> {
+            release.await();
+            throw failure;
+        });
+        awaitWaiters();
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause().isSameAs(failure);
+        }
+        assertThat(singleFlight.getInFlight()).isZero();
+    }
+
+    @Test
+    void completedCallIsNotReused() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(singleFlight.execute("token", () -> "v" + loads.incrementAndGet())).isEqualTo("v1");
+        assertThat(singleFlight.execute("token", () -> "v" + loads.incrementAndGet())).isEqualTo("v2");
+        assertThat(singleFlight.getShared()).isZero();
+    }
+
+    @Test
+    void differentKeysDoNotCoalesce() throws Exception {
+        assertThat(singleFlight.execute("a", () -> "A")).isEqualTo("A");
+        assertThat(singleFlight.execute("b", () -> "B")).isEqualTo("B");
+        assertThat(singleFlight.getExecutions()).isEqualTo(2);
+    }
+
+    private List<Future<String>> submitAll(Callable<String> loader) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(pool.submit(() -> singleFlight.execute("token", loader)));
+        }
+        return results;
+    }
+
+    // Every caller but the one running the loader has joined the in-flight call
+    private void awaitWaiters() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.getShared() < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(singleFlight.getShared()).isEqualTo(CALLERS - 1);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.walletmicroservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketTest {
+
+    @Test
+    void burstIsAvailableAtOnceAndThenCallersAreTurnedAway() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.acquire(System.nanoTime())).isTrue();
+        }
+        long untilAvailable = bucket.nanosUntilAvailable();
+
+        assertThat(bucket.acquire(System.nanoTime())).isFalse();
+        // A caller turned away does not consume a token
+        assertThat(bucket.nanosUntilAvailable()).isLessThanOrEqualTo(untilAvailable);
+        assertThat(untilAvailable).isGreaterThan(TimeUnit.MILLISECONDS.toNanos(900));
+    }
+
+    @Test
+    void callerWaitsForTheRefillWithinItsDeadline() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(20, 1);
+        assertThat(bucket.acquire(System.nanoTime())).isTrue();
+
+        long start = System.nanoTime();
+        assertThat(bucket.acquire(start + TimeUnit.SECONDS.toNanos(1))).isTrue();
+
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(40));
+    }
+
+    @Test
+    void waitingCallersAreServedOneTokenApartInArrivalOrder() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(10, 1);
+        assertThat(bucket.acquire(System.nanoTime())).isTrue();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        long start = System.nanoTime();
+        assertThat(bucket.acquire(deadline)).isTrue();
+        assertThat(bucket.acquire(deadline)).isTrue();
+
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(180));
+    }
+
+    @Test
+    void pauseHandsOutNothingUntilItEnds() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1000, 5);
+
+        bucket.pause(TimeUnit.MILLISECONDS.toNanos(300));
+
+        assertThat(bucket.acquire(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100))).isFalse();
+        assertThat(bucket.nanosUntilAvailable()).isGreaterThan(TimeUnit.MILLISECONDS.toNanos(150));
+        assertThat(bucket.acquire(System.nanoTime() + TimeUnit.SECONDS.toNanos(1))).isTrue();
+    }
+
+    @Test
+    void refundedTokenIsHandedOutAgain() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 1);
+        assertThat(bucket.acquire(System.nanoTime())).isTrue();
+        assertThat(bucket.acquire(System.nanoTime())).isFalse();
+
+        bucket.refund();
+
+        assertThat(bucket.acquire(System.nanoTime())).isTrue();
+    }
+
+    @Test
+    void refundNeverRaisesTheBucketAboveItsBurst() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 2);
+
+        bucket.refund();
+
+        assertThat(bucket.acquire(System.nanoTime())).isTrue();
+        assertThat(bucket.acquire(System.nanoTime())).isTrue();
+        assertThat(bucket.acquire(System.nanoTime())).isFalse();
+    }
+
+    @Test
+    void callerInterruptedWhileWaitingGivesItsTokenBack() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 1);
+        assertThat(bucket.acquire(System.nanoTime())).isTrue();
+        long untilAvailable = bucket.nanosUntilAvailable();
+
+        Thread.currentThread().interrupt();
+        assertThatThrownBy(() -> bucket.acquire(System.nanoTime() + TimeUnit.SECONDS.toNanos(2)))
+                .isInstanceOf(InterruptedException.class);
+
+        assertThat(bucket.nanosUntilAvailable()).isLessThanOrEqualTo(untilAvailable);
+    }
+
+    @Test
+    void nonPositiveRateOrBurstIsRejected() {
+        assertThatThrownBy(() -> new TokenBucket(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucket(1, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}